@@ -0,0 +1,39 @@
+package relicscape;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * One packed picture inside a TextureAtlas page: the page image plus the rectangle it
+ * occupies. Drawing goes straight from the page so every sprite shares one accelerated surface.
+ */
+final class AtlasRegion {
+
+    final BufferedImage page;
+    final int x;
+    final int y;
+    final int wide;
+    final int tall;
+
+    AtlasRegion(BufferedImage page, int x, int y, int wide, int tall) {
+        this.page = page;
+        this.x = x;
+        this.y = y;
+        this.wide = wide;
+        this.tall = tall;
+    }
+
+    /** A region covering a whole standalone image. */
+    static AtlasRegion of(BufferedImage pic) {
+        return new AtlasRegion(pic, 0, 0, pic.getWidth(), pic.getHeight());
+    }
+
+    /** Draw into (dx, dy, drawW, drawH); a negative drawW mirrors, like drawImage does. */
+    void draw(Graphics2D pen, int dx, int dy, int drawW, int drawH) {
+        pen.drawImage(page, dx, dy, dx + drawW, dy + drawH, x, y, x + wide, y + tall, null);
+    }
+
+    void draw(Graphics2D pen, int dx, int dy) {
+        draw(pen, dx, dy, wide, tall);
+    }
+}
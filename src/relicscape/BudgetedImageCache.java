@@ -0,0 +1,62 @@
+package relicscape;
+
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least-recently-used image cache that evicts by estimated pixel bytes rather than entry count.
+ */
+class BudgetedImageCache<K> {
+
+    private final Map<K, BufferedImage> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final long budgetBytes;
+    private long usedBytes;
+
+    BudgetedImageCache(long budgetBytes) {
+        this.budgetBytes = Math.max(0L, budgetBytes);
+    }
+
+    BufferedImage get(K key) {
+        return entries.get(key);
+    }
+
+    void put(K key, BufferedImage pic) {
+        BufferedImage old = entries.put(key, pic);
+        if (old != null) usedBytes -= bytesOf(old);
+        usedBytes += bytesOf(pic);
+        trim();
+    }
+
+    void remove(K key) {
+        BufferedImage old = entries.remove(key);
+        if (old != null) usedBytes -= bytesOf(old);
+    }
+
+    void clear() {
+        entries.clear();
+        usedBytes = 0L;
+    }
+
+    long usedBytes() { return usedBytes; }
+    long budgetBytes() { return budgetBytes; }
+    int size() { return entries.size(); }
+
+    // Always keeps the newest entry, even if it alone is over budget.
+    private void trim() {
+        Iterator<Map.Entry<K, BufferedImage>> oldestFirst = entries.entrySet().iterator();
+        while (usedBytes > budgetBytes && entries.size() > 1 && oldestFirst.hasNext()) {
+            BufferedImage victim = oldestFirst.next().getValue();
+            oldestFirst.remove();
+            usedBytes -= bytesOf(victim);
+        }
+    }
+
+    static long bytesOf(BufferedImage pic) {
+        if (pic == null) return 0L;
+        int bitsPerPixel = pic.getColorModel().getPixelSize();
+        int bytesPerPixel = Math.max(1, (bitsPerPixel + 7) / 8);
+        return (long) pic.getWidth() * pic.getHeight() * bytesPerPixel;
+    }
+}
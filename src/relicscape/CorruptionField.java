@@ -0,0 +1,68 @@
+package relicscape;
+
+/**
+ * The per-tile corruption threshold ("spook gate"), computed once per map. Corruption
+ * reaches a tile when the global creep progress passes its gate, so the only thing
+ * that changes over time is a single number and every lookup is an array read.
+ */
+class CorruptionField {
+
+    private static final float SPILL = 0.45f;
+
+    private final int wide;
+    private final int tall;
+    private final float[] spookGate;
+
+    CorruptionField(int wide, int tall) {
+        this.wide = Math.max(0, wide);
+        this.tall = Math.max(0, tall);
+        this.spookGate = new float[this.wide * this.tall];
+        for (int y = 0; y < this.tall; y++) {
+            for (int x = 0; x < this.wide; x++) {
+                spookGate[y * this.wide + x] = (float) gateFormula(x, y);
+            }
+        }
+    }
+
+    /** Corruption strength 0..1 at a tile for creep progress 0..1. */
+    double strengthAt(int x, int y, double creep) {
+        double gate = (x >= 0 && y >= 0 && x < wide && y < tall)
+                ? spookGate[y * wide + x]
+                : gateFormula(x, y);
+        double purplePunch = Math.max(0.0, Math.min(1.0, (creep - gate) / SPILL));
+        return purplePunch * purplePunch * (3 - 2 * purplePunch);
+    }
+
+    /**
+     * Strength of every tile in the window, row-major into out (windowWide per row).
+     * Tiles outside the map come out as 0.
+     */
+    void fillWindow(double creep, int left, int top, int windowWide, int windowTall, float[] out) {
+        float creepF = (float) creep;
+        float invSpill = 1f / SPILL;
+        for (int row = 0; row < windowTall; row++) {
+            int y = top + row;
+            int outBase = row * windowWide;
+            if (y < 0 || y >= tall) {
+                java.util.Arrays.fill(out, outBase, outBase + windowWide, 0f);
+                continue;
+            }
+            int x0 = Math.max(0, left);
+            int x1 = Math.min(wide, left + windowWide);
+            java.util.Arrays.fill(out, outBase, outBase + windowWide, 0f);
+            int gateBase = y * wide;
+            for (int x = x0; x < x1; x++) {
+                float t = (creepF - spookGate[gateBase + x]) * invSpill;
+                t = Math.min(1f, Math.max(0f, t));
+                out[outBase + x - left] = t * t * (3f - 2f * t);
+            }
+        }
+    }
+
+    // Rows near the top corrupt first, with a small fixed jitter per tile.
+    private double gateFormula(int x, int y) {
+        double topTilt = 1.0 - (y / Math.max(1.0, (tall - 1)));
+        double wiggleNoise = (Util.scrappyPick(x, y, 7, 100) - 50) / 520.0;
+        return Math.max(0.0, Math.min(1.0, topTilt + wiggleNoise + 0.03));
+    }
+}
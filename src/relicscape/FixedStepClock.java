@@ -0,0 +1,55 @@
+package relicscape;
+
+/**
+ * Turns real elapsed time into a whole number of fixed simulation steps. Leftover time
+ * carries over to the next call; a long stall runs at most a capped burst of catch-up
+ * steps and the rest of the backlog is dropped.
+ */
+class FixedStepClock {
+
+    private final long stepNanos;
+    private final int maxCatchUpSteps;
+    private long lastNanos = Long.MIN_VALUE;
+    private long carriedNanos;
+
+    FixedStepClock(long stepMs, int maxCatchUpSteps) {
+        this.stepNanos = Math.max(1L, stepMs) * 1_000_000L;
+        this.maxCatchUpSteps = Math.max(1, maxCatchUpSteps);
+    }
+
+    /** How many steps to simulate now. The first call only starts the clock. */
+    int advance(long nowNanos) {
+        if (lastNanos == Long.MIN_VALUE) {
+            lastNanos = nowNanos;
+            return 0;
+        }
+        long elapsed = Math.max(0L, nowNanos - lastNanos);
+        lastNanos = nowNanos;
+        carriedNanos += elapsed;
+        long due = carriedNanos / stepNanos;
+        if (due > maxCatchUpSteps) {
+            carriedNanos %= stepNanos;
+            return maxCatchUpSteps;
+        }
+        carriedNanos -= due * stepNanos;
+        return (int) due;
+    }
+
+    /** When the step that has yet to run began building up; blend factors count from here. */
+    long stepStartNanos() {
+        return lastNanos - carriedNanos;
+    }
+
+    /** Time left until the next step is due. */
+    long nanosUntilNextStep() {
+        return Math.max(0L, stepNanos - carriedNanos);
+    }
+
+    long stepNanos() {
+        return stepNanos;
+    }
+
+    float stepSeconds() {
+        return stepNanos / 1_000_000_000f;
+    }
+}
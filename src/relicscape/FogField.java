@@ -0,0 +1,268 @@
+package relicscape;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Which tiles the player has uncovered, one bit per tile packed into longs row by row.
+ * Keeps running explored counts per region so "how much have I seen" is O(1), and
+ * reveals circles from precomputed row spans instead of testing every cell's distance.
+ */
+class FogField {
+
+    private final int wide;
+    private final int tall;
+    private final int wordsPerRow;
+    private final long[] bits;
+    private final int[] regionOfRow;
+    private final int[] exploredByRegion;
+    private final int[] cellsByRegion;
+    private int exploredTotal;
+    private int revision;
+
+    private double stampRadius = Double.NaN;
+    private int[] stampHalfSpans = new int[0];
+
+    /**
+     * @param regionOfRow region id (0..regionCount-1) for every row, e.g. the biome band
+     */
+    FogField(int wide, int tall, int[] regionOfRow, int regionCount) {
+        this.wide = Math.max(0, wide);
+        this.tall = Math.max(0, tall);
+        this.wordsPerRow = (this.wide + 63) >>> 6;
+        this.bits = new long[wordsPerRow * this.tall];
+        this.regionOfRow = regionOfRow.clone();
+        this.exploredByRegion = new int[Math.max(1, regionCount)];
+        this.cellsByRegion = new int[Math.max(1, regionCount)];
+        for (int y = 0; y < this.tall; y++) {
+            cellsByRegion[this.regionOfRow[y]] += this.wide;
+        }
+    }
+
+    // Deep copy of the tile bits and counts; the stamp spans are rebuilt on demand.
+    private FogField(FogField from) {
+        this.wide = from.wide;
+        this.tall = from.tall;
+        this.wordsPerRow = from.wordsPerRow;
+        this.bits = from.bits.clone();
+        this.regionOfRow = from.regionOfRow;
+        this.exploredByRegion = from.exploredByRegion.clone();
+        this.cellsByRegion = from.cellsByRegion;
+        this.exploredTotal = from.exploredTotal;
+        this.revision = from.revision;
+    }
+
+    /** A copy at this revision, for another thread to read while this one keeps revealing. */
+    FogField frozenCopy() {
+        return new FogField(this);
+    }
+
+    int getWidth() { return wide; }
+    int getHeight() { return tall; }
+
+    boolean isRevealed(int x, int y) {
+        if (x < 0 || y < 0 || x >= wide || y >= tall) return false;
+        return (bits[y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    void reveal(int x, int y) {
+        if (x < 0 || y < 0 || x >= wide || y >= tall) return;
+        setSpan(y, x, x);
+    }
+
+    void revealAll() {
+        for (int y = 0; y < tall; y++) {
+            setSpan(y, 0, wide - 1);
+        }
+    }
+
+    /**
+     * Reveal every tile whose center lies within radius of (cx,cy) (with the same
+     * quarter-tile slack the old per-cell test used).
+     */
+    void stamp(int cx, int cy, double radius) {
+        int[] halfSpans = spansFor(radius);
+        int reach = halfSpans.length / 2;
+        for (int dy = -reach; dy <= reach; dy++) {
+            int half = halfSpans[dy + reach];
+            int y = cy + dy;
+            if (half < 0 || y < 0 || y >= tall) continue;
+            int x0 = Math.max(0, cx - half);
+            int x1 = Math.min(wide - 1, cx + half);
+            if (x0 <= x1) setSpan(y, x0, x1);
+        }
+    }
+
+    /** True if any tile in the rectangle is revealed. */
+    boolean anyRevealedIn(int left, int top, int rectWide, int rectTall) {
+        int x0 = Math.max(0, left);
+        int x1 = Math.min(wide, left + rectWide) - 1;
+        int y0 = Math.max(0, top);
+        int y1 = Math.min(tall, top + rectTall) - 1;
+        if (x0 > x1) return false;
+        int w0 = x0 >>> 6;
+        int w1 = x1 >>> 6;
+        for (int y = y0; y <= y1; y++) {
+            int rowBase = y * wordsPerRow;
+            for (int w = w0; w <= w1; w++) {
+                if ((bits[rowBase + w] & spanMask(w, x0, x1)) != 0) return true;
+            }
+        }
+        return false;
+    }
+
+    /** Bumped whenever a tile flips, so a cached picture of the fog knows it is stale. */
+    int revision() { return revision; }
+
+    int exploredCount() { return exploredTotal; }
+
+    int exploredCount(int region) {
+        return region >= 0 && region < exploredByRegion.length ? exploredByRegion[region] : 0;
+    }
+
+    double exploredFraction() {
+        long cells = (long) wide * tall;
+        return cells == 0 ? 0.0 : exploredTotal / (double) cells;
+    }
+
+    double exploredFraction(int region) {
+        if (region < 0 || region >= cellsByRegion.length || cellsByRegion[region] == 0) return 0.0;
+        return exploredByRegion[region] / (double) cellsByRegion[region];
+    }
+
+    /**
+     * Compact save form: width and height, then alternating run lengths of hidden and
+     * revealed tiles in row-major order (starting with hidden), all as unsigned varints.
+     */
+    byte[] exportRle() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeVarint(out, wide);
+        writeVarint(out, tall);
+        long cells = (long) wide * tall;
+        long at = 0;
+        boolean lookingFor = true;
+        while (at < cells) {
+            long next = nextCellWith(at, lookingFor);
+            writeVarint(out, next - at);
+            at = next;
+            lookingFor = !lookingFor;
+        }
+        return out.toByteArray();
+    }
+
+    /** Replace the current state with one written by {@link #exportRle()}. */
+    void importRle(byte[] packed) {
+        int[] cursor = {0};
+        long savedWide = readVarint(packed, cursor);
+        long savedTall = readVarint(packed, cursor);
+        if (savedWide != wide || savedTall != tall) {
+            throw new IllegalArgumentException("Fog save is " + savedWide + "x" + savedTall
+                    + " but the map is " + wide + "x" + tall);
+        }
+        java.util.Arrays.fill(bits, 0L);
+        java.util.Arrays.fill(exploredByRegion, 0);
+        exploredTotal = 0;
+        revision++;
+        long cells = (long) wide * tall;
+        long at = 0;
+        boolean revealed = false;
+        while (at < cells && cursor[0] < packed.length) {
+            long run = Math.min(readVarint(packed, cursor), cells - at);
+            if (revealed) {
+                for (long cell = at; cell < at + run; ) {
+                    int y = (int) (cell / wide);
+                    int x0 = (int) (cell % wide);
+                    int x1 = (int) Math.min(wide - 1, x0 + (at + run - cell) - 1);
+                    setSpan(y, x0, x1);
+                    cell += x1 - x0 + 1;
+                }
+            }
+            at += run;
+            revealed = !revealed;
+        }
+    }
+
+    private void setSpan(int y, int x0, int x1) {
+        int rowBase = y * wordsPerRow;
+        int fresh = 0;
+        for (int w = x0 >>> 6; w <= x1 >>> 6; w++) {
+            long mask = spanMask(w, x0, x1);
+            long old = bits[rowBase + w];
+            fresh += Long.bitCount(mask & ~old);
+            bits[rowBase + w] = old | mask;
+        }
+        if (fresh > 0) {
+            revision++;
+            exploredTotal += fresh;
+            exploredByRegion[regionOfRow[y]] += fresh;
+        }
+    }
+
+    // Bits of word w that fall inside [x0, x1].
+    private static long spanMask(int w, int x0, int x1) {
+        int lo = Math.max(x0, w << 6) & 63;
+        int hi = Math.min(x1, (w << 6) + 63) & 63;
+        long upTo = hi == 63 ? -1L : (1L << (hi + 1)) - 1;
+        return upTo & (-1L << lo);
+    }
+
+    private int[] spansFor(double radius) {
+        if (radius == stampRadius) return stampHalfSpans;
+        int reach = (int) Math.ceil(radius);
+        double r2 = radius * radius;
+        int[] halfSpans = new int[reach * 2 + 1];
+        for (int dy = -reach; dy <= reach; dy++) {
+            int half = -1;
+            for (int dx = 0; dx <= reach; dx++) {
+                if (dx * dx + dy * dy <= r2 + 0.25) half = dx;
+            }
+            halfSpans[dy + reach] = half;
+        }
+        stampRadius = radius;
+        stampHalfSpans = halfSpans;
+        return halfSpans;
+    }
+
+    // First linear cell index >= from whose bit equals want, or the cell count.
+    private long nextCellWith(long from, boolean want) {
+        long cells = (long) wide * tall;
+        long cell = from;
+        while (cell < cells) {
+            int y = (int) (cell / wide);
+            int x = (int) (cell % wide);
+            int rowBase = y * wordsPerRow;
+            int w = x >>> 6;
+            long word = bits[rowBase + w];
+            if (!want) word = ~word;
+            word &= -1L << (x & 63);
+            while (word == 0 && ++w < wordsPerRow) {
+                word = want ? bits[rowBase + w] : ~bits[rowBase + w];
+            }
+            if (word != 0) {
+                int hitX = (w << 6) + Long.numberOfTrailingZeros(word);
+                if (hitX < wide) return (long) y * wide + hitX;
+            }
+            cell = (long) (y + 1) * wide;
+        }
+        return cells;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(byte[] packed, int[] cursor) {
+        long value = 0;
+        int shift = 0;
+        while (cursor[0] < packed.length) {
+            int b = packed[cursor[0]++] & 0xFF;
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+            shift += 7;
+        }
+        throw new IllegalArgumentException("Fog save is truncated");
+    }
+}
@@ -0,0 +1,119 @@
+package relicscape;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Fog of war as a tiny black image with one pixel per world tile. Painting it stretched
+ * with bilinear filtering replaces a fillRect per tile and softens the fog edge.
+ */
+class FogMask {
+
+    private final int wide;
+    private final int tall;
+    private final BufferedImage shadePic;
+    private final int[] rowInk;
+    private final byte[] alphas;
+    private int freshLeft;
+    private int freshTop;
+    private int freshRight = -1;
+    private int freshBottom = -1;
+
+    FogMask(int wide, int tall) {
+        this.wide = Math.max(1, wide);
+        this.tall = Math.max(1, tall);
+        this.shadePic = new BufferedImage(this.wide, this.tall, BufferedImage.TYPE_INT_ARGB);
+        this.rowInk = new int[this.wide];
+        this.alphas = new byte[this.wide * this.tall];
+    }
+
+    /** Recompute the fog alpha (0-255) of every tile in the window; the rest keeps its old value. */
+    void refresh(int left, int top, int windowWide, int windowTall, IntBinaryOperator alphaAt) {
+        int x0 = Math.max(0, left);
+        int y0 = Math.max(0, top);
+        int x1 = Math.min(wide, left + windowWide);
+        int y1 = Math.min(tall, top + windowTall);
+        if (x1 <= x0 || y1 <= y0) return;
+        repaint(x0, y0, x1, y1, alphaAt);
+        freshLeft = x0;
+        freshTop = y0;
+        freshRight = x1 - 1;
+        freshBottom = y1 - 1;
+    }
+
+    /**
+     * Recompute just the tiles of the window that the last refresh covered, e.g. where a
+     * light moved; what covers() reports is left alone.
+     */
+    void touchUp(int left, int top, int windowWide, int windowTall, IntBinaryOperator alphaAt) {
+        int x0 = Math.max(freshLeft, left);
+        int y0 = Math.max(freshTop, top);
+        int x1 = Math.min(freshRight + 1, left + windowWide);
+        int y1 = Math.min(freshBottom + 1, top + windowTall);
+        if (x1 <= x0 || y1 <= y0) return;
+        repaint(x0, y0, x1, y1, alphaAt);
+    }
+
+    private void repaint(int x0, int y0, int x1, int y1, IntBinaryOperator alphaAt) {
+        int span = x1 - x0;
+        for (int y = y0; y < y1; y++) {
+            for (int x = x0; x < x1; x++) {
+                int alpha = Math.max(0, Math.min(255, alphaAt.applyAsInt(x, y)));
+                rowInk[x - x0] = alpha << 24;
+                alphas[y * wide + x] = (byte) alpha;
+            }
+            shadePic.setRGB(x0, y, span, 1, rowInk, 0, span);
+        }
+    }
+
+    /** Fog alpha (0-255) of tile (x,y) as of its last refresh, clamped to the map. */
+    int alphaAt(int x, int y) {
+        x = Math.max(0, Math.min(wide - 1, x));
+        y = Math.max(0, Math.min(tall - 1, y));
+        return alphas[y * wide + x] & 0xFF;
+    }
+
+    int wide() {
+        return wide;
+    }
+
+    int tall() {
+        return tall;
+    }
+
+    /** True if the last refresh covered every in-world tile of the window. */
+    boolean covers(int left, int top, int windowWide, int windowTall) {
+        int x0 = Math.max(0, left);
+        int y0 = Math.max(0, top);
+        int x1 = Math.min(wide, left + windowWide) - 1;
+        int y1 = Math.min(tall, top + windowTall) - 1;
+        return x0 >= freshLeft && y0 >= freshTop && x1 <= freshRight && y1 <= freshBottom;
+    }
+
+    /**
+     * Stretch the window of the mask over the screen, tile (x,y) covering
+     * (originX + x*tileSize, originY + y*tileSize). One tile of margin is sampled on
+     * each side so the filter blends across the view edge; the caller clips. Without
+     * smooth each tile gets one flat shade, which is cheaper to stretch.
+     */
+    void draw(Graphics2D fogPen, int left, int top, int windowWide, int windowTall,
+              int originX, int originY, int tileSize, boolean smooth) {
+        int x0 = Math.max(0, left - 1);
+        int y0 = Math.max(0, top - 1);
+        int x1 = Math.min(wide, left + windowWide + 1);
+        int y1 = Math.min(tall, top + windowTall + 1);
+        if (x1 <= x0 || y1 <= y0) return;
+        Object oldLerp = fogPen.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+        fogPen.setRenderingHint(RenderingHints.KEY_INTERPOLATION, smooth
+                ? RenderingHints.VALUE_INTERPOLATION_BILINEAR : RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        fogPen.drawImage(shadePic,
+                originX + x0 * tileSize, originY + y0 * tileSize,
+                originX + x1 * tileSize, originY + y1 * tileSize,
+                x0, y0, x1, y1, null);
+        if (oldLerp != null) {
+            fogPen.setRenderingHint(RenderingHints.KEY_INTERPOLATION, oldLerp);
+        }
+    }
+}
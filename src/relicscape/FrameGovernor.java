@@ -0,0 +1,110 @@
+package relicscape;
+
+/**
+ * Watches how long frames take to draw and trades effects for speed when they run over
+ * budget. Frame time is smoothed, quality drops a level after the average stays over
+ * budget for a while and climbs back only after it stays well under, with a cooldown
+ * between changes so the picture doesn't flicker between levels. Called from the
+ * painting thread; the level may be read from anywhere.
+ */
+class FrameGovernor {
+
+    /** What each level still draws; lower levels keep everything the ones below them drop. */
+    enum Quality {
+        HIGH(true, true, true, 1.0f, TintCache.FADE_STEPS),
+        MEDIUM(false, true, true, 0.6f, TintCache.FADE_STEPS),
+        LOW(false, false, true, 0.35f, 4),
+        MINIMAL(false, false, false, 0.15f, 2);
+
+        /** Relic halos and the pulsing of halos and drops. */
+        final boolean halos;
+        /** Bilinear fog edges rather than one flat shade per tile. */
+        final boolean smoothFog;
+        final boolean vignette;
+        /** Share of particles spawned by effects. */
+        final float particleShare;
+        /** How many fade levels monster tints snap to, fewer meaning fewer baked variants. */
+        final int fadeSteps;
+
+        Quality(boolean halos, boolean smoothFog, boolean vignette, float particleShare, int fadeSteps) {
+            this.halos = halos;
+            this.smoothFog = smoothFog;
+            this.vignette = vignette;
+            this.particleShare = particleShare;
+            this.fadeSteps = fadeSteps;
+        }
+    }
+
+    private static final float SMOOTHING = 0.1f;
+    private static final float OVER_BUDGET = 1.1f;
+    private static final float UNDER_BUDGET = 0.6f;
+    private static final int FRAMES_TO_DROP = 20;
+    private static final int FRAMES_TO_RISE = 120;
+    private static final long COOLDOWN_NANOS = 1_500_000_000L;
+
+    private final long budgetNanos;
+    private final Quality pinned;
+    private volatile Quality level;
+    private float averageNanos;
+    private int overFrames;
+    private int underFrames;
+    private long lastChangeNanos;
+
+    /** pinned, if not null, fixes the level and turns the governor off. */
+    FrameGovernor(long budgetNanos, Quality pinned) {
+        this.budgetNanos = Math.max(1L, budgetNanos);
+        this.pinned = pinned;
+        this.level = pinned != null ? pinned : Quality.HIGH;
+        this.averageNanos = this.budgetNanos * 0.5f;
+    }
+
+    Quality level() {
+        return level;
+    }
+
+    /** Smoothed draw time in milliseconds, for diagnostics. */
+    float averageMs() {
+        return averageNanos / 1_000_000f;
+    }
+
+    void frameDrawn(long drawNanos, long nowNanos) {
+        averageNanos += (drawNanos - averageNanos) * SMOOTHING;
+        if (pinned != null) return;
+
+        if (averageNanos > budgetNanos * OVER_BUDGET) {
+            overFrames++;
+            underFrames = 0;
+        } else if (averageNanos < budgetNanos * UNDER_BUDGET) {
+            underFrames++;
+            overFrames = 0;
+        } else {
+            overFrames = 0;
+            underFrames = 0;
+        }
+        if (nowNanos - lastChangeNanos < COOLDOWN_NANOS) return;
+
+        Quality[] ladder = Quality.values();
+        int rung = level.ordinal();
+        if (overFrames >= FRAMES_TO_DROP && rung < ladder.length - 1) {
+            shift(ladder[rung + 1], nowNanos);
+        } else if (underFrames >= FRAMES_TO_RISE && rung > 0) {
+            shift(ladder[rung - 1], nowNanos);
+        }
+    }
+
+    private void shift(Quality next, long nowNanos) {
+        level = next;
+        lastChangeNanos = nowNanos;
+        overFrames = 0;
+        underFrames = 0;
+    }
+
+    /** Parses -Drelicscape.quality style names; null for anything else, meaning "adaptive". */
+    static Quality parse(String name) {
+        if (name == null) return null;
+        for (Quality q : Quality.values()) {
+            if (q.name().equalsIgnoreCase(name.trim())) return q;
+        }
+        return null;
+    }
+}
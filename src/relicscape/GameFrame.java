@@ -1,9 +1,20 @@
 package relicscape;
 
+import java.awt.BorderLayout;
+import java.awt.Canvas;
 import java.awt.Frame;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import javax.swing.JFrame;
 public class GameFrame extends JFrame {
 
+    private static final long serialVersionUID = 1L;
+
+    // -Drelicscape.activeRender=true draws from a dedicated thread into a BufferStrategy.
+    private static final boolean ACTIVE_RENDER = Boolean.getBoolean("relicscape.activeRender");
+
+    private RenderLoop renderLoop;
+
     public GameFrame() {
         setTitle("Relicscape");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -11,10 +22,61 @@ public class GameFrame extends JFrame {
 
         GamePanel playBox = new GamePanel();
         setContentPane(playBox);
+        Canvas drawSurface = null;
+        if (ACTIVE_RENDER) {
+            drawSurface = new Canvas();
+            drawSurface.setIgnoreRepaint(true);
+            drawSurface.addKeyListener(playBox);
+            drawSurface.addMouseListener(playBox);
+            playBox.setLayout(new BorderLayout());
+            playBox.add(drawSurface, BorderLayout.CENTER);
+            playBox.useActiveRendering(true);
+            setIgnoreRepaint(true);
+        }
         pack();
         setExtendedState(JFrame.MAXIMIZED_BOTH);
         setLocationRelativeTo(null);
         setState(Frame.NORMAL);
         toFront();
+
+        // Drop to a trickle of frames while minimized or behind another window.
+        WindowAdapter idleWatch = new WindowAdapter() {
+            @Override
+            public void windowStateChanged(WindowEvent e) {
+                playBox.setWindowIdle((e.getNewState() & Frame.ICONIFIED) != 0 || !isFocused());
+            }
+
+            @Override
+            public void windowGainedFocus(WindowEvent e) {
+                playBox.setWindowIdle((getExtendedState() & Frame.ICONIFIED) != 0);
+            }
+
+            @Override
+            public void windowLostFocus(WindowEvent e) {
+                playBox.setWindowIdle(true);
+            }
+        };
+        addWindowStateListener(idleWatch);
+        addWindowFocusListener(idleWatch);
+
+        if (drawSurface != null) {
+            Canvas focusTarget = drawSurface;
+            renderLoop = new RenderLoop(drawSurface, playBox);
+            renderLoop.start();
+            addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowOpened(WindowEvent e) {
+                    focusTarget.requestFocusInWindow();
+                }
+            });
+        }
+    }
+
+    @Override
+    public void dispose() {
+        if (renderLoop != null) {
+            renderLoop.stop();
+        }
+        super.dispose();
     }
 }
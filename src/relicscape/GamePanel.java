@@ -1,12 +1,15 @@
 package relicscape;
 
 import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.BufferedInputStream;
 import javax.sound.sampled.AudioInputStream;
@@ -18,16 +21,19 @@ import java.util.List;
 import java.util.Random;
 import javax.imageio.ImageIO;
 import javax.swing.JPanel;
-import javax.swing.Timer;
 import javax.swing.SwingUtilities;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class GamePanel extends JPanel implements KeyListener, MouseListener {
 
     private final int tileSizeHint = 96;
     private final int hudBarHeight = 80;
     private final int tickMs = 33;
+    private final int frameMs = 16;
+    private static final int MAX_CATCH_UP_STEPS = 5;
     private final double clearRing = 1.0;
     private final double revealRing = 4.5;
     private final double fogEdge = 11.5;
@@ -37,11 +43,22 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
 
     private final World world;
     private TMXMapLoader mapLoader;
+    private final TileChunkCache tileChunks;
     private final Player player;
     private final RelicManager relicBag;
     private final Random rand = new Random(System.currentTimeMillis());
     private long lastMoveMs=0L;
     private static final long MOVE_GAP_MS = 200;
+    private static final long TILE_CACHE_BUDGET_BYTES = Long.getLong("relicscape.tileCacheMb", 48L) << 20;
+    private static final long TINT_CACHE_BUDGET_BYTES = Long.getLong("relicscape.tintCacheMb", 32L) << 20;
+    // A chunk is ~9 MB at 96px tiles and ~21 MB at 144px; keep at least a screenful.
+    private static final long CHUNK_CACHE_BUDGET_BYTES = Long.getLong("relicscape.chunkCacheMb", 128L) << 20;
+    private static final boolean NATIVE_RES = Boolean.getBoolean("relicscape.nativeRes");
+    // HUD panel and whisper bar heights and the gap under each, shared by their painters and repaint bounds.
+    private static final int HUD_TALL = 96;
+    private static final int WHISPER_TALL = 56;
+    private static final int HUD_GAP = 12;
+    private static final long FRAME_BUDGET_NANOS = Long.getLong("relicscape.frameBudgetMs", 16L) * 1_000_000L;
     private static boolean bootIntoEndless = false;
     private boolean endlessMode = false;
     private boolean postWinChoice = false;
@@ -97,7 +114,10 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
     private final double corruptionExitThreshold = 0.02;
     private boolean inCorruptionZone = false;
 
-    private boolean[][] discovered;
+    private FogField discovered;
+    private final CorruptionField corruptionField;
+    private float[] corruptionWindow = new float[0];
+    private FogMask fogMask;
     private BufferedImage[] soldierWalkFrames;
     private BufferedImage[] soldierIdleFrames;
     private BufferedImage[] soldierHurtFrames;
@@ -158,12 +178,73 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
     private final long hurtAnimDurationMs = 400L;
     private long deathAnimStartMs = -1L;
     
-    private final List<EndingParticle> endingParticles = new ArrayList<>();
+    // Room for far more than the ending burst needs, so effects can share it without allocating.
+    private static final int PARTICLE_CAPACITY = 1 << 15;
+    private final ParticleField sparks = new ParticleField(PARTICLE_CAPACITY, 60f);
+    private final int[] endingInks = {
+            sparks.ink(0xDCFFC864), sparks.ink(0xDCFFFF96), sparks.ink(0xDCC896FF), sparks.ink(0xDCFF96C8)
+    };
+    private final java.util.Random sparkDice = new java.util.Random();
+    // -Drelicscape.weather=off|sandstorm|rain|ash pins the weather; unset, each biome brings its own now and then.
+    private final Weather weather = new Weather(Weather.parse(System.getProperty("relicscape.weather")));
+    private float shownSightLoss = 0f;
+    // The snapshot's frozen fog the mask is being built from; painting thread only.
+    private FogField shownFog;
+    // Sim thread only: the last fog copy published and the field it was taken from.
+    private FogField publishedFog;
+    private FogField publishedFogOf;
+    private final LightMap lights = new LightMap();
+    // Cells of a "lights" map layer, packed y*width+x; each one burns like a torch.
+    private int[] torchCells = new int[0];
+    private float fogMaskSightLoss = 0f;
     private boolean endingAnimStarted = false;
     private long endingAnimStartMs = 0L;
     private int playerAscensionY = 0;
 
-    private final Timer timer;
+    private final SimLoop simLoop = new SimLoop(this);
+    private final UiLayerCache uiLayers = new UiLayerCache();
+    private final TextureAtlas spriteAtlas = new TextureAtlas();
+    private final TintCache tintedFrames = new TintCache(TINT_CACHE_BUDGET_BYTES, spriteAtlas);
+    private final TrimmedFrames trimmedFrames = new TrimmedFrames();
+    private final RenderQueue drawQueue = new RenderQueue();
+    // -Drelicscape.quality=high|medium|low|minimal pins the level; otherwise it follows frame time.
+    private final FrameGovernor governor = new FrameGovernor(FRAME_BUDGET_NANOS,
+            FrameGovernor.parse(System.getProperty("relicscape.quality")));
+    private FrameGovernor.Quality frameQuality = FrameGovernor.Quality.HIGH;
+    // The last full frame's world, vignette and tint, for HUD- and whisper-only repaints; painting thread only.
+    private BufferedImage worldLayer;
+    private boolean worldLayerFresh;
+    private volatile WorldRenderer worldRenderer = "raster".equalsIgnoreCase(System.getProperty("relicscape.renderer"))
+            ? new RasterWorldRenderer() : new Java2DWorldRenderer();
+    private final GlyphAtlas hpGlyphs = new GlyphAtlas(new Font("Garamond",Font.BOLD,18),
+            new Color(245,238,228), "HP 0123456789/-");
+    private final GlyphAtlas relicGlyphs = new GlyphAtlas(new Font("Garamond",Font.BOLD,17),
+            new Color(228,214,190,235), "Relics: 0123456789/");
+
+    // Which parts of the panel changed since they were last drawn.
+    static final int DIRTY_WORLD = 1;
+    static final int DIRTY_WHISPER = 2;
+    static final int DIRTY_HUD = 4;
+    static final int DIRTY_ALL = DIRTY_WORLD | DIRTY_WHISPER | DIRTY_HUD;
+    private static final long IDLE_FRAME_MS = 500L;
+    private static final long TITLE_BOB_FRAME_MS = 100L;
+    private final AtomicInteger pendingDirty = new AtomicInteger(DIRTY_ALL);
+    private volatile boolean windowIdle = false;
+    private volatile long lastIdleFrameMs = 0L;
+    private long lastTitleBobMs = 0L;
+    private volatile SceneSnapshot snapshot;
+    private int fogMaskRevision = -1;
+    // Where the hero stood for the last mask; the clear ring follows him even when the camera can't.
+    private int fogMaskHeroX = Integer.MIN_VALUE;
+    private int fogMaskHeroY = Integer.MIN_VALUE;
+    private final FixedStepClock simClock = new FixedStepClock(tickMs, MAX_CATCH_UP_STEPS);
+    // Shared clock for animated map tiles, advanced one tickMs per sim step.
+    private long tileClockMs = 0L;
+    private final ConcurrentLinkedQueue<java.awt.AWTEvent> pendingInput = new ConcurrentLinkedQueue<>();
+    private volatile boolean activeRendering = false;
+    // Panel size as of the last resize, for the sim thread, which must not ask Swing.
+    private volatile int panelWide;
+    private volatile int panelTall;
 
     public GamePanel() {
         setPreferredSize(new Dimension(1280, 900));
@@ -171,11 +252,24 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
         setFocusable(true);
         addKeyListener(this);
         addMouseListener(this);
+        addComponentListener(new ComponentAdapter(){
+            @Override
+            public void componentResized(ComponentEvent e){
+                panelWide = getWidth();
+                panelTall = getHeight();
+            }
+        });
 
         TMXMapLoader loader = new TMXMapLoader();
         world = loader.load("images/dreams.tmx");
         this.mapLoader=loader;
+        corruptionField = new CorruptionField(world.getWidth(), world.getHeight());
+        tileChunks = new TileChunkCache(loader, new ScaledTileCache(loader, spriteAtlas, TILE_CACHE_BUDGET_BYTES),
+                world.getWidth(), world.getHeight(), CHUNK_CACHE_BUDGET_BYTES);
+        world.setCellWatcher(tileChunks);
+        loader.setCellWatcher(tileChunks);
         computeEndingBounds();
+        findTorches();
 
         relicBag = new RelicManager(0);
 
@@ -212,19 +306,166 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
         startPreRelicBgm();
         scatterRelicPics();
         syncRelicGoal();
+        packSpriteAtlas();
 
-        startScreen = new StartScreenRenderer();
-
-        timer = new Timer(tickMs, e->{
-            updateGame();
-            repaint();
-        });
-        timer.start();
+        startScreen = new StartScreenRenderer(uiLayers);
 
         lastMessage = "Explore the world. Find " + relicBag.goalCount() + " relic fragments and return to the central shrine.";
         if(endlessMode){
             lastMessage = "Peaceful run: collect countless relics, monsters heal, shrine restarts or ESC exits.";
         }
+        publishSnapshot();
+        simLoop.start();
+    }
+
+    /**
+     * One pass of the sim thread: apply queued input, run whatever fixed tickMs steps real
+     * time says are due (so a stall catches up instead of slowing down), then publish a
+     * fresh snapshot for the painter. Returns how long the loop may sleep.
+     */
+    long simulate(long nowNanos){
+        boolean poked = drainInput();
+        int steps = simClock.advance(nowNanos);
+        for(int i=0;i<steps;i++){
+            updateGame();
+            stepMotion();
+        }
+        settleStartFade();
+        SceneSnapshot before = snapshot;
+        publishSnapshot();
+        markDirty(poked ? DIRTY_ALL : dirtyParts(before, snapshot));
+
+        long untilStep = simClock.nanosUntilNextStep();
+        if(!activeRendering){
+            requestRepaints();
+        }
+        if(snapshot.gliding && !windowIdle){
+            return Math.min(untilStep, frameMs * 1_000_000L); // in-between frames for the interpolation
+        }
+        return untilStep;
+    }
+
+    void markDirty(int parts){
+        if(parts != 0){
+            pendingDirty.accumulateAndGet(parts, (a, b) -> a | b);
+        }
+    }
+
+    /**
+     * Which parts need drawing right now, or 0 to skip the frame; clears what it returns.
+     * Minimized or unfocused windows get at most one full frame every IDLE_FRAME_MS.
+     */
+    int claimDirty(){
+        SceneSnapshot shot = snapshot;
+        boolean gliding = shot != null && shot.gliding;
+        if(windowIdle){
+            long now = System.currentTimeMillis();
+            if(now - lastIdleFrameMs < IDLE_FRAME_MS) return 0;
+            if(pendingDirty.getAndSet(0) == 0 && !gliding) return 0;
+            lastIdleFrameMs = now;
+            return DIRTY_ALL;
+        }
+        int dirty = pendingDirty.getAndSet(0);
+        return gliding ? dirty | DIRTY_WORLD : dirty;
+    }
+
+    /** Minimized or in the background: draw next to nothing until the player comes back. */
+    void setWindowIdle(boolean idle){
+        windowIdle = idle;
+        if(!idle){
+            markDirty(DIRTY_ALL);
+            simLoop.wake();
+        }
+    }
+
+    private void requestRepaints(){
+        int dirty = claimDirty();
+        if((dirty & DIRTY_WORLD) != 0){
+            repaint(); // the world sits under everything else, so it means a full frame
+            return;
+        }
+        if((dirty & DIRTY_HUD) != 0){
+            repaint(hudBounds());
+        }
+        if((dirty & DIRTY_WHISPER) != 0){
+            repaint(whisperBounds());
+        }
+    }
+
+    private int dirtyParts(SceneSnapshot before, SceneSnapshot now){
+        if(before == null || before.onTitle != now.onTitle || before.overlay != now.overlay
+                || before.mathUp != now.mathUp){
+            return DIRTY_ALL;
+        }
+        if(now.onTitle){
+            if(now.fading) return DIRTY_ALL;
+            if(now.awaitingContinue){
+                // the title words only bob gently; a few frames a second is plenty
+                long nowMs = System.currentTimeMillis();
+                if(nowMs - lastTitleBobMs < TITLE_BOB_FRAME_MS) return 0;
+                lastTitleBobMs = nowMs;
+                return DIRTY_ALL;
+            }
+            return 0;
+        }
+        if(now.overlay) return DIRTY_ALL; // cutscenes and end screens animate every frame
+        if(now.mathUp) return 0; // frozen behind the puzzle until a key changes it
+        int dirty = 0;
+        if(worldMoved(before, now)) dirty |= DIRTY_WORLD;
+        if(before.hearts != now.hearts || before.maxHearts != now.maxHearts
+                || before.relicsHeld != now.relicsHeld || before.relicGoal != now.relicGoal){
+            dirty |= DIRTY_HUD;
+        }
+        if(!before.message.equals(now.message)) dirty |= DIRTY_WHISPER;
+        return dirty;
+    }
+
+    private boolean worldMoved(SceneSnapshot before, SceneSnapshot now){
+        if(now.gliding || before.gliding) return true;
+        // drop bob and portal pulse never stop, but only matter while on screen (and animating)
+        if(governor.level().halos){
+            for(RelicDrop drop : now.drops){
+                if(nearView(now, drop.x, drop.y, drop.x, drop.y)) return true;
+            }
+            if(now.haloOn && nearView(now, endingMinX, endingMinY, endingMaxX, endingMaxY)) return true;
+        }
+        if(before.fog != now.fog) return true; // a fresh copy is published only when a tile flips
+        if(now.weatherOn || before.weatherOn || before.sightLoss != now.sightLoss) return true;
+        if(tileChunks.showedAnimation()
+                && mapLoader.getTileAnimations().frameChanged(before.tileClockMs, now.tileClockMs)) return true;
+        if(Math.abs(before.creep - now.creep) >= 1.0 / 512) return true;
+        if(before.heroTileX != now.heroTileX || before.heroTileY != now.heroTileY) return true;
+        if(!before.hero.sameAs(now.hero)) return true;
+        return !sameSprites(before.beasts, now.beasts) || !sameSprites(before.blasts, now.blasts);
+    }
+
+    // Rough on-screen test around the player, a tile generous on each side.
+    private boolean nearView(SceneSnapshot shot, int left, int top, int right, int bottom){
+        int tileSize = screenTileSize();
+        int reachX = panelWide / tileSize / 2 + 2;
+        int reachY = panelTall / tileSize / 2 + 2;
+        return right >= shot.heroTileX - reachX && left <= shot.heroTileX + reachX
+                && bottom >= shot.heroTileY - reachY && top <= shot.heroTileY + reachY;
+    }
+
+    private int screenTileSize(){
+        return Math.max(72, Math.min(144, tileSizeHint));
+    }
+
+    private static boolean sameSprites(List<SpriteView> a, List<SpriteView> b){
+        if(a.size() != b.size()) return false;
+        for(int i=0;i<a.size();i++){
+            if(!a.get(i).sameAs(b.get(i))) return false;
+        }
+        return true;
+    }
+
+    private void settleStartFade(){
+        if(startFading && !fadeDone && System.currentTimeMillis() - fadeStartMs >= fadeDurationMs){
+            fadeDone=true;
+            waitingForContinue=true;
+            startFading=false;
+        }
     }
 
     private void configureEndlessMode(){
@@ -244,7 +485,7 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
         postWinChoice = false;
         escapedWin = false;
         endingAnimStarted = false;
-        endingParticles.clear();
+        sparks.clear();
 
         corruptionStartMs = -1L;
         corruptionTintActive = false;
@@ -272,8 +513,38 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
         lastMessage = "Peaceful relic hunt: monsters heal you, corruption is gone. Shrine restarts the loop.";
     }
 
+    /** Hand painting over to a RenderLoop thread; the sim then stops asking Swing to repaint. */
+    void useActiveRendering(boolean on){
+        activeRendering = on;
+    }
+
     @Override
     public void keyPressed(KeyEvent e) {
+        queueInput(e);
+    }
+
+    private void queueInput(java.awt.AWTEvent e){
+        pendingInput.offer(e);
+        simLoop.wake();
+    }
+
+    private boolean drainInput(){
+        boolean any = false;
+        java.awt.AWTEvent e;
+        while((e = pendingInput.poll()) != null){
+            any = true;
+            if(e.getID() == KeyEvent.KEY_PRESSED){
+                handleKeyPressed((KeyEvent) e);
+            } else if(e.getID() == KeyEvent.KEY_RELEASED){
+                handleKeyReleased((KeyEvent) e);
+            } else if(e.getID() == MouseEvent.MOUSE_CLICKED){
+                handleMouseClicked((MouseEvent) e);
+            }
+        }
+        return any;
+    }
+
+    private void handleKeyPressed(KeyEvent e) {
         if(thirdRelicCutsceneActive && thirdRelicCutsceneAwaitingContinue){
             completeThirdRelicCutscene();
             return;
@@ -335,7 +606,11 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
                 nudgePlayer(1, 0);
                 break;
             case KeyEvent.VK_H:
-                lastMessage="WASD / arrows to move. Find 3 relics (✶) and return to the shrine (⌘).";
+                lastMessage="WASD / arrows to move. Find 3 relics (✶) and return to the shrine (⌘). Explored: "
+                        + Math.round(100*discovered.exploredFraction()) + "% (forest "
+                        + Math.round(100*exploredShare(TileType.GRASS)) + "%, desert "
+                        + Math.round(100*exploredShare(TileType.SAND)) + "%, ruins "
+                        + Math.round(100*exploredShare(TileType.RUIN_FLOOR)) + "%).";
                 break;
             case KeyEvent.VK_ESCAPE:
                 lastMessage="Press ESC again to quit.";
@@ -357,6 +632,10 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
 
     @Override
     public void keyReleased(KeyEvent e) {
+        queueInput(e);
+    }
+
+    private void handleKeyReleased(KeyEvent e) {
         switch(e.getKeyCode()){
             case KeyEvent.VK_W:
             case KeyEvent.VK_UP:
@@ -391,9 +670,7 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
 
     private void restartGame(){
         stopAllClips();
-        if(timer != null){
-            timer.stop();
-        }
+        simLoop.stop();
         SwingUtilities.invokeLater(() -> {
             java.awt.Window w = SwingUtilities.getWindowAncestor(this);
             if(w != null){
@@ -406,6 +683,10 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
 
     @Override
     public void mouseClicked(MouseEvent e) {
+        queueInput(e);
+    }
+
+    private void handleMouseClicked(MouseEvent e) {
         if(thirdRelicCutsceneActive && thirdRelicCutsceneAwaitingContinue){
             completeThirdRelicCutscene();
             return;
@@ -466,7 +747,7 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
             return;
         }
 
-        player.setPosition(newX, newY);
+        player.setTargetPosition(newX, newY);
         lastMoveMs=now;
         moving=true;
         playFootstep();
@@ -700,9 +981,11 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
         int py = player.getTileY();
         if(!mapLoader.hasTile("ending", px, py)) return;
         escapedWin = true;
-        endingAnimStarted = false;
-        endingParticles.clear();
+        sparks.clear();
         escapedWinStartMs = System.currentTimeMillis();
+        // stepMotion bursts the sparks from here on; no need to wait for a painted frame
+        endingAnimStarted = true;
+        endingAnimStartMs = escapedWinStartMs;
         enterPostWinChoice("You step into the radiant rift. Press ENTER to begin a peaceful relic hunt or ESC to leave.");
     }
 
@@ -750,6 +1033,57 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
         }
     }
 
+    /**
+     * Everything that gets blitted every frame goes into the atlas once it has loaded:
+     * hero and monster frames, relic art and every tile the map actually uses.
+     * -Drelicscape.atlasOut=dir also writes the packed pages out.
+     */
+    private void packSpriteAtlas(){
+        spriteAtlas.addAll("soldier-idle", soldierIdleFrames);
+        spriteAtlas.addAll("soldier-walk", soldierWalkFrames);
+        spriteAtlas.addAll("soldier-hurt", soldierHurtFrames);
+        spriteAtlas.addAll("soldier-death", soldierDeathFrames);
+        spriteAtlas.addAll("eye", monsterEyeFrames);
+        spriteAtlas.addAll("jelly", monsterJellyFrames);
+        spriteAtlas.addAll("golem-idle", golemIdleFrames);
+        spriteAtlas.addAll("golem-walk", golemWalkFrames);
+        spriteAtlas.addAll("golem-attack", golemAttackFrames);
+        spriteAtlas.addAll("necro-idle", necroIdleFrames);
+        spriteAtlas.addAll("necro-walk", necroWalkFrames);
+        spriteAtlas.addAll("necro-attack", necroAttackFrames);
+        spriteAtlas.addAll("necro-attack-fx", necroAttackFxFrames);
+        spriteAtlas.addAll("necro-spawn", necroSpawnFrames);
+        for(RelicDrop drop : looseShinies){
+            spriteAtlas.add("relic", drop.pic);
+        }
+        if(mapLoader != null){
+            BufferedImage[] gidPics = mapLoader.getTileTable();
+            boolean[] used = new boolean[gidPics.length];
+            for(int[][] layerGrid : mapLoader.getRenderPlan()){
+                for(int[] gridRow : layerGrid){
+                    for(int gid : gridRow){
+                        if(gid > 0 && gid < used.length) used[gid] = true;
+                    }
+                }
+            }
+            for(int gid=1; gid<used.length; gid++){
+                if(used[gid]) spriteAtlas.add("tile-" + gid, gidPics[gid]);
+            }
+        }
+        spriteAtlas.pack(GraphicsEnvironment.isHeadless() ? null
+                : GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration());
+
+        String atlasOut = System.getProperty("relicscape.atlasOut");
+        if(atlasOut != null){
+            try{
+                spriteAtlas.writeTo(new File(atlasOut));
+            } catch(IOException ex){
+                // only written when asked for, so a failed dump should say so
+                System.err.println("Could not write the sprite atlas to " + atlasOut + ": " + ex.getMessage());
+            }
+        }
+    }
+
     private List<BufferedImage> loadRelicPics(){
         List<BufferedImage> pics = new ArrayList<>();
         for(String name : RELIC_RESOURCE_NAMES){
@@ -803,166 +1137,299 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        Graphics2D g2 = (Graphics2D) g;
+        if(activeRendering){
+            return; // the RenderLoop canvas covers this panel
+        }
+        renderFrame((Graphics2D) g);
+    }
+
+    /** Swap how the world layers are drawn, e.g. to benchmark one WorldRenderer against another. */
+    void setWorldRenderer(WorldRenderer renderer){
+        worldRenderer = renderer;
+        markDirty(DIRTY_ALL);
+    }
+
+    /** The effect quality frames are currently drawn at, for diagnostics. */
+    FrameGovernor.Quality qualityLevel(){
+        return governor.level();
+    }
+
+    /** Smoothed time to draw a frame, in milliseconds, for diagnostics. */
+    float averageFrameMs(){
+        return governor.averageMs();
+    }
+
+    /** Draw one complete frame; called from paintComponent or the active RenderLoop thread. */
+    void renderFrame(Graphics2D g2) {
+        SceneSnapshot shot = snapshot;
+        if(shot != null){
+            long drawStart = System.nanoTime();
+            frameQuality = governor.level();
+            Rectangle repaintArea = g2.getClipBounds();
+            boolean wholeFrame = repaintArea == null || repaintArea.contains(0, 0, getWidth(), getHeight());
+            drawScene(g2, shot);
+            long drawEnd = System.nanoTime();
+            if(wholeFrame){
+                governor.frameDrawn(drawEnd - drawStart, drawEnd); // partial repaints would read as fast frames
+            }
+            if(governor.level() != frameQuality){
+                markDirty(DIRTY_ALL);
+            }
+        }
+    }
 
+    private void drawScene(Graphics2D g2, SceneSnapshot shot) {
         g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
                 RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        StoryView story = shot.story;
 
-        if(onStartScreen || startFading || waitingForContinue){
+        if(shot.onTitle){
             startScreen.draw(g2, getWidth(), getHeight());
-            if(startFading || fadeDone){
-                long elapsed = System.currentTimeMillis() - fadeStartMs;
-                double t = fadeDone ? 1.0 : Math.min(1.0, elapsed/(double)fadeDurationMs);
+            if(shot.fading || story.fadeDone){
+                long elapsed = System.currentTimeMillis() - story.fadeStartMs;
+                double t = story.fadeDone ? 1.0 : Math.min(1.0, elapsed/(double)fadeDurationMs);
                 int alpha = (int)Math.round(255*t);
                 g2.setColor(new Color(0,0,0, alpha));
                 g2.fillRect(0,0,getWidth(),getHeight());
 
-                drawFadeWords(g2, elapsed, fadeDone);
+                drawFadeWords(g2, elapsed, story.fadeDone);
+            }
+            return;
+        }
 
-                if(!fadeDone && t>=1.0){
-                    fadeDone=true;
-                    startFading=false;
-                    waitingForContinue=true;
-                }
+        int shakeX = 0;
+        int shakeY = 0;
+        if(story.firstActive || story.secondActive || story.thirdActive){
+            long elapsed = story.firstActive
+                ? (System.currentTimeMillis() - story.firstStartMs)
+                : (story.secondActive
+                ? (System.currentTimeMillis() - story.secondStartMs)
+                : (System.currentTimeMillis() - story.thirdStartMs));
+            double duration = story.firstActive ? firstRelicCutsceneDurationMs
+                : (story.secondActive ? secondRelicCutsceneDurationMs : thirdRelicCutsceneDurationMs);
+            double t = Math.min(1.0, elapsed / Math.max(1.0, duration));
+            double decay = 1.0 - t;
+            double intensity = story.thirdActive ? 2.0 : (story.secondActive ? 1.6 : 1.0);
+            shakeX = (int)Math.round(Math.sin(System.currentTimeMillis()*0.032) * 4 * decay * intensity);
+            shakeY = (int)Math.round(Math.cos(System.currentTimeMillis()*0.040) * 6 * decay * intensity);
+        }
+        g2.translate(shakeX, shakeY);
+
+        // A repaint of only the HUD and whisper strips puts back the world under them from the
+        // last full frame instead of running the whole world pass again.
+        Rectangle repaintArea = g2.getClipBounds();
+        boolean keepWorld = !activeRendering && shakeX == 0 && shakeY == 0;
+        if(keepWorld && worldLayerFresh && repaintArea != null && stripBounds().contains(repaintArea)
+                && worldLayer.getWidth() == getWidth() && worldLayer.getHeight() == getHeight()){
+            g2.drawImage(worldLayer, 0, 0, null);
+        } else {
+            Graphics2D worldPen = keepWorld ? startWorldLayer(g2) : g2;
+            drawWorldLayer(worldPen, shot);
+            if(keepWorld){
+                worldPen.dispose();
+                g2.drawImage(worldLayer, 0, 0, null);
             }
+            worldLayerFresh = keepWorld;
+        }
+        if(repaintArea == null || repaintArea.intersects(hudBounds())){
+            paintHud(g2, shot);
+        }
+        if(repaintArea == null || repaintArea.intersects(whisperBounds())){
+            paintWhisper(g2, shot.message);
+        }
+
+        if(story.firstActive){
+            drawFirstRelicCutsceneOverlay(g2, story);
+        }
+        if(story.secondActive){
+            drawSecondRelicCutsceneOverlay(g2, story);
+        }
+        if(story.thirdActive){
+            drawThirdRelicCutsceneOverlay(g2, story);
+        }
+        if(story.necroActive){
+            drawNecroCutsceneOverlay(g2, story);
+        }
+
+        g2.translate(-shakeX, -shakeY);
+
+        if(shot.mathUp){
+            drawMathOverlay(g2, shot);
             return;
         }
 
+        if(story.gameOver){
+            drawGameOverOverlay(g2, story);
+        } else if(story.gameWon){
+            if(story.postWinChoice){
+                drawWinChoiceOverlay(g2, story);
+            } else if(story.escapedWin){
+                drawEscapeWinOverlay(g2, story);
+            } else {
+                drawGameOverOverlay(g2, story);
+            }
+        }
+    }
+
+    /** Camera, world layers, vignette and corruption tint: everything under the HUD and overlays. */
+    private void drawWorldLayer(Graphics2D worldPen, SceneSnapshot shot){
         int availableWidth = getWidth();
         int availableHeight=getHeight();
 
         int hudSpace = hudBarHeight;
         int topMargin = topPad;
 
-        int tileSize = Math.max(72, Math.min(144, tileSizeHint));
+        int tileSize = screenTileSize();
 
         int usableHeight= Math.max(0, availableHeight-hudSpace-topMargin);
         int viewWidthTiles = Math.max(1,(int)Math.ceil(availableWidth/(double)tileSize));
         int viewHeightTiles =  Math.max(1,(int)Math.ceil(usableHeight/(double)tileSize));
 
-        int viewLeft = (int)Math.round(player.getTileX()-(viewWidthTiles-1)/2.0);
-        int viewTop  = (int)Math.round(player.getTileY()-(viewHeightTiles-1)/2.0);
-
-        if(viewLeft<0) viewLeft=0;
-        if(viewTop<0){
-            viewTop=0;
-        }
-        if(viewLeft+viewWidthTiles>world.getWidth())
-            viewLeft=world.getWidth()-viewWidthTiles;
-        if(viewTop+viewHeightTiles>world.getHeight())
-            viewTop=world.getHeight()-viewHeightTiles;
-
-        int shakeX = 0;
-        int shakeY = 0;
-        if(firstRelicCutsceneActive || secondRelicCutsceneActive || thirdRelicCutsceneActive){
-            long elapsed = firstRelicCutsceneActive
-                ? (System.currentTimeMillis() - firstRelicCutsceneStartMs)
-                : (secondRelicCutsceneActive
-                ? (System.currentTimeMillis() - secondRelicCutsceneStartMs)
-                : (System.currentTimeMillis() - thirdRelicCutsceneStartMs));
-            double duration = firstRelicCutsceneActive ? firstRelicCutsceneDurationMs
-                : (secondRelicCutsceneActive ? secondRelicCutsceneDurationMs : thirdRelicCutsceneDurationMs);
-            double t = Math.min(1.0, elapsed / Math.max(1.0, duration));
-            double decay = 1.0 - t;
-            double intensity = thirdRelicCutsceneActive ? 2.0 : (secondRelicCutsceneActive ? 1.6 : 1.0);
-            shakeX = (int)Math.round(Math.sin(System.currentTimeMillis()*0.032) * 4 * decay * intensity);
-            shakeY = (int)Math.round(Math.cos(System.currentTimeMillis()*0.040) * 6 * decay * intensity);
+        // Everything that moves is drawn part way between the last two sim steps.
+        float blend = shot.blend(System.nanoTime());
+        float heroX = shot.hero.shownX(blend);
+        float heroY = shot.hero.shownY(blend);
+
+        // Same framing as the old whole-tile camera, shifted by however far the glide has left to go.
+        double camX = Math.round(shot.heroTileX-(viewWidthTiles-1)/2.0) + (heroX - shot.heroTileX);
+        double camY = Math.round(shot.heroTileY-(viewHeightTiles-1)/2.0) + (heroY - shot.heroTileY);
+
+        if(camX<0) camX=0;
+        if(camY<0){
+            camY=0;
+        }
+        if(camX+viewWidthTiles>world.getWidth())
+            camX=world.getWidth()-viewWidthTiles;
+        if(camY+viewHeightTiles>world.getHeight())
+            camY=world.getHeight()-viewHeightTiles;
+
+        int viewLeft = (int)Math.floor(camX);
+        int viewTop = (int)Math.floor(camY);
+        int scrollX = (int)Math.round((camX-viewLeft)*tileSize);
+        int scrollY = (int)Math.round((camY-viewTop)*tileSize);
+        if(scrollX>=tileSize){ viewLeft++; scrollX=0; }
+        if(scrollY>=tileSize){ viewTop++; scrollY=0; }
+        // a part-scrolled view shows a sliver of one more column/row
+        int drawWide = viewWidthTiles + (scrollX>0 ? 1 : 0);
+        int drawTall = viewHeightTiles + (scrollY>0 ? 1 : 0);
+
+        // -Drelicscape.nativeRes=true draws the world at the tilesets' own pixel size and lets the
+        // renderer upscale it once; the canvas then never grows with the window or a HiDPI scale.
+        int canvasTile = NATIVE_RES && mapLoader != null ? mapLoader.getArtTileSize() : tileSize;
+        WorldRenderer out = worldRenderer;
+        out.begin(worldPen, drawWide*canvasTile, drawTall*canvasTile,
+                new Rectangle(-scrollX, topPad - scrollY, drawWide*tileSize, drawTall*tileSize),
+                new Rectangle(0, topPad, viewWidthTiles*tileSize, viewHeightTiles*tileSize));
+        drawWorld(out, shot, viewLeft, viewTop, drawWide, drawTall, canvasTile, blend, heroX, heroY);
+        out.finish();
+
+        if(frameQuality.vignette){
+            drawVignette(worldPen);
+        }
+        if(shot.story.tint != null){
+            worldPen.setColor(shot.story.tint);
+            worldPen.fillRect(0,0,getWidth(),getHeight());
+        }
+    }
+
+    /**
+     * Tiles, drops, hero, fog, monsters and the portal halo for the view whose top-left
+     * tile is (viewLeft, viewTop), tile (x,y) at canvas (x*tileSize, y*tileSize).
+     */
+    private void drawWorld(WorldRenderer out, SceneSnapshot shot, int viewLeft, int viewTop,
+                           int drawWide, int drawTall, int tileSize, float blend, float heroX, float heroY){
+        int originX = -viewLeft*tileSize;
+        int originY = -viewTop*tileSize;
+        shownSightLoss = shot.sightLoss;
+        shownFog = shot.fog;
+
+        tileChunks.draw(out, viewLeft, viewTop, drawWide, drawTall,
+                originX, originY, tileSize, noFog ? null : shot.fog::anyRevealedIn, shot.tileClockMs);
+
+        double creep = shot.creep;
+        if(corruptionWindow.length < drawWide*drawTall){
+            corruptionWindow = new float[drawWide*drawTall];
+        }
+        if(creep > 0.0){
+            corruptionField.fillWindow(creep, viewLeft, viewTop, drawWide, drawTall, corruptionWindow);
+        } else {
+            java.util.Arrays.fill(corruptionWindow, 0f);
         }
-        g2.translate(shakeX, shakeY);
 
-        for(int y=0;y<viewHeightTiles;y++){
+        for(int y=0;y<drawTall;y++){
             int worldY=viewTop+y;
             if(worldY<0||worldY>=world.getHeight()){
                 continue;
             }
 
-            for(int x=0;x<viewWidthTiles;x++){
+            for(int x=0;x<drawWide;x++){
                 int worldX=viewLeft+x;
                 if(worldX<0||worldX>=world.getWidth()){
                     continue;
                 }
 
-                boolean blocked=world.isBlocked(worldX,worldY);
-                boolean isPlayerHere=(worldX==player.getTileX()&&worldY==player.getTileY());
+                if(!noFog && !shot.fog.isRevealed(worldX, worldY)){
+                    continue; // the fog mask paints it solid; nothing under it would show
+                }
 
                 int px=x*tileSize;
-                int py = topPad + y*tileSize;
-
-                double corruptionStrength = moodHaziness(worldX, worldY);
-                drawTile(g2,blocked,px,py,isPlayerHere,worldX,worldY,tileSize,corruptionStrength);
-
-                int fogAlpha=fogAlphaForTile(worldX,worldY);
-                if(fogAlpha>0){
-                    g2.setColor(new Color(0,0,0,fogAlpha));
-                    g2.fillRect(px,py,tileSize,tileSize);
-                }
+                int py=y*tileSize;
 
+                double corruptionStrength = corruptionWindow[y*drawWide + x];
+                drawTile(drawQueue,shot.drops,px,py,worldX,worldY,tileSize,corruptionStrength);
+            }
+        }
+        drawHero(drawQueue, shot.hero, Math.round((heroX-viewLeft)*tileSize), Math.round((heroY-viewTop)*tileSize), tileSize);
+
+        if(!noFog){
+            Rectangle relit = gatherLights(shot, viewLeft-1, viewTop-1, drawWide+2, drawTall+2, blend);
+            if(shot.fog.revision() != fogMaskRevision || shot.sightLoss != fogMaskSightLoss
+                    || shot.heroTileX != fogMaskHeroX || shot.heroTileY != fogMaskHeroY
+                    || !fogMask.covers(viewLeft-1, viewTop-1, drawWide+2, drawTall+2)){
+                fogMaskHeroX = shot.heroTileX;
+                fogMaskHeroY = shot.heroTileY;
+                refreshFogMask(viewLeft, viewTop, drawWide, drawTall);
+                fogMaskRevision = shot.fog.revision();
+                fogMaskSightLoss = shot.sightLoss;
+            } else if(relit != null){
+                // only the tiles a light brightened or left re-fog
+                fogMask.touchUp(relit.x, relit.y, relit.width, relit.height, this::fogAlphaForTile);
             }
+            boolean smoothFog = frameQuality.smoothFog;
+            drawQueue.custom(RenderQueue.Layer.FOG, 0, fogPen ->
+                    fogPen.fog(fogMask, viewLeft, viewTop, drawWide, drawTall, originX, originY, tileSize, smoothFog));
         }
 
-        drawMonsters(g2, viewLeft, viewTop, tileSize, viewWidthTiles, viewHeightTiles);
+        drawMonsters(drawQueue, out.deviceConfiguration(), shot, viewLeft, viewTop, tileSize, drawWide, drawTall, blend);
+
+        if(shot.weatherOn){
+            float weatherShare = frameQuality.particleShare;
+            drawQueue.custom(RenderQueue.Layer.EFFECTS, 0, weatherPen ->
+                    weather.draw(weatherPen, viewLeft, viewTop, drawWide, drawTall, tileSize, weatherShare));
+        }
 
         // Single halo over the ending portal when all relics are gathered
-        if(relicBag.doneGathering() && endingMinX >= 0 && mapLoader != null){
+        if(shot.haloOn && mapLoader != null){
             int haloLeftTiles = endingMinX - viewLeft;
             int haloTopTiles = endingMinY - viewTop;
             int haloWtiles = endingMaxX - endingMinX + 1;
             int haloHtiles = endingMaxY - endingMinY + 1;
-            if(haloLeftTiles < viewWidthTiles && haloTopTiles < viewHeightTiles && haloLeftTiles + haloWtiles > 0 && haloTopTiles + haloHtiles > 0){
-                double pulse = Math.sin(System.currentTimeMillis()/320.0)*0.25 + 0.75;
+            if(haloLeftTiles < drawWide && haloTopTiles < drawTall && haloLeftTiles + haloWtiles > 0 && haloTopTiles + haloHtiles > 0){
+                double pulse = frameQuality.halos ? Math.sin(System.currentTimeMillis()/320.0)*0.25 + 0.75 : 0.75;
                 int haloW = (int)Math.round(haloWtiles * tileSize * 1.2);
                 int haloH = (int)Math.round(haloHtiles * tileSize * 1.2);
                 int haloX = (int)Math.round((haloLeftTiles * tileSize) + (haloWtiles*tileSize - haloW)/2.0);
-                int haloY = topPad + (int)Math.round((haloTopTiles * tileSize) + (haloHtiles*tileSize - haloH)/2.0);
+                int haloY = (int)Math.round((haloTopTiles * tileSize) + (haloHtiles*tileSize - haloH)/2.0);
                 int alphaOuter = (int)(60 * pulse);
                 int alphaInner = (int)(40 * pulse);
-                g2.setColor(new Color(120, 220, 255, alphaOuter));
-                g2.fillOval(haloX, haloY, haloW, haloH);
-                g2.setColor(new Color(255, 255, 255, alphaInner));
-                g2.fillOval(haloX + 10, haloY + 10, Math.max(10, haloW - 20), Math.max(10, haloH - 20));
+                drawQueue.fillOval(RenderQueue.Layer.EFFECTS, 0, haloX, haloY, haloW, haloH, alphaOuter << 24 | 0x78DCFF);
+                int rim = (int)Math.round(10 * tileSize / (double)screenTileSize());
+                drawQueue.fillOval(RenderQueue.Layer.EFFECTS, 0, haloX + rim, haloY + rim,
+                        Math.max(rim, haloW - rim*2), Math.max(rim, haloH - rim*2), alphaInner << 24 | 0xFFFFFF);
             }
         }
 
-        drawVignette(g2);
-        if(!noCorruption && corruptionTintActive && !firstRelicCutsceneActive && !secondRelicCutsceneActive){
-            Color tint = corruptionPhaseTwo ? new Color(150,40,90,70) : new Color(90,60,130,40);
-            g2.setColor(tint);
-            g2.fillRect(0,0,getWidth(),getHeight());
-        }
-        paintHud(g2, tileSize, viewHeightTiles);
-        paintWhisper(g2);
-
-        if(firstRelicCutsceneActive){
-            drawFirstRelicCutsceneOverlay(g2);
-        }
-        if(secondRelicCutsceneActive){
-            drawSecondRelicCutsceneOverlay(g2);
-        }
-        if(thirdRelicCutsceneActive){
-            drawThirdRelicCutsceneOverlay(g2);
-        }
-        if(necroCutsceneActive){
-            drawNecroCutsceneOverlay(g2);
-        }
-
-        g2.translate(-shakeX, -shakeY);
-
-        if(mathActive){
-            drawMathOverlay(g2);
-            return;
-        }
-
-        if(gameOver){
-            drawGameOverOverlay(g2);
-        } else if(gameWon){
-            if(postWinChoice){
-                drawWinChoiceOverlay(g2);
-            } else if(escapedWin){
-                drawEscapeWinOverlay(g2);
-            } else {
-                drawGameOverOverlay(g2);
-            }
-        }
+        drawQueue.flush(out);
     }
 
     private void beginStartFade(){
@@ -989,9 +1456,7 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
     private void restartIntoEndless(){
         postWinChoice = false;
         stopAllClips();
-        if(timer != null){
-            timer.stop();
-        }
+        simLoop.stop();
         bootIntoEndless = true;
         SwingUtilities.invokeLater(() -> {
             java.awt.Window w = SwingUtilities.getWindowAncestor(this);
@@ -1024,10 +1489,10 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
             float alpha = (float)Math.min(1.0, ease);
             int size = 56 + (int)(18*ease);
 
-            g2.setFont(new Font("Garamond", Font.BOLD, size));
+            g2.setFont(TextCache.font("Garamond", Font.BOLD, size));
             String text = lines[i];
             FontMetrics fm = g2.getFontMetrics();
-            int tw = fm.stringWidth(text);
+            int tw = TextCache.width(fm, text);
             int th = fm.getAscent();
             int dy = (i-1) * (th+10);
             int bob = (int)(Math.sin((elapsed/360.0)+(i*0.6)) * 4 * ease);
@@ -1039,10 +1504,56 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
         }
     }
 
-    private void paintHud(Graphics2D g2,int tileSize,int viewHeightTiles){
+    private Rectangle fullScreen(){
+        return new Rectangle(0, 0, getWidth(), getHeight());
+    }
+
+    private int hudTop(){
+        return Math.max(0, getHeight() - HUD_TALL - HUD_GAP);
+    }
+
+    private int whisperTop(){
+        return Math.max(10, hudTop() - WHISPER_TALL - HUD_GAP);
+    }
+
+    // Panel areas paintHud and paintWhisper draw into, with a little room for the strokes.
+    private Rectangle hudBounds(){
+        return new Rectangle(0, hudTop() - 2, getWidth(), HUD_TALL + 4);
+    }
+
+    private Rectangle whisperBounds(){
+        return new Rectangle(0, whisperTop() - 2, getWidth(), WHISPER_TALL + 4);
+    }
+
+    // From the top of the whisper bar down to the bottom edge: what a HUD or whisper repaint touches.
+    private Rectangle stripBounds(){
+        int top = whisperTop() - 2;
+        return new Rectangle(0, top, getWidth(), getHeight() - top);
+    }
+
+    // Clears the panel-sized layer the world, vignette and tint are drawn into before they go on screen.
+    private Graphics2D startWorldLayer(Graphics2D screenPen){
+        if(worldLayer == null || worldLayer.getWidth() != getWidth() || worldLayer.getHeight() != getHeight()){
+            GraphicsConfiguration screenCfg = screenPen.getDeviceConfiguration();
+            worldLayer = screenCfg != null
+                    ? screenCfg.createCompatibleImage(getWidth(), getHeight(), Transparency.OPAQUE)
+                    : new BufferedImage(getWidth(), getHeight(), BufferedImage.TYPE_INT_RGB);
+        }
+        Graphics2D worldPen = worldLayer.createGraphics();
+        worldPen.setColor(getBackground());
+        worldPen.fillRect(0, 0, getWidth(), getHeight());
+        return worldPen;
+    }
+
+    private void paintHud(Graphics2D g2,SceneSnapshot shot){
+        uiLayers.draw(g2, "hud", UiLayerCache.inputs(getWidth(), getHeight(), shot.hearts, shot.maxHearts,
+                shot.relicsHeld, shot.relicGoal), hudBounds(), hudPen -> paintHudPanel(hudPen, shot));
+    }
+
+    private void paintHudPanel(Graphics2D g2,SceneSnapshot shot){
         int pad = 20;
-        int boxH = 96;
-        int hudTop = Math.max(0, getHeight() - boxH - 12);
+        int boxH = HUD_TALL;
+        int hudTop = hudTop();
 
         GradientPaint gp = new GradientPaint(0, hudTop, new Color(32,26,20,238), 0, hudTop+boxH, new Color(18,14,12,242));
         g2.setPaint(gp);
@@ -1058,8 +1569,8 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
 
         int barW = 460;
         int barH = 26;
-        int hp = player.getHearts();
-        int hpMax = Math.max(1, player.getMaxHearts());
+        int hp = shot.hearts;
+        int hpMax = Math.max(1, shot.maxHearts);
         float hpPct = Math.max(0f, Math.min(1f, hp/(float)hpMax));
         int barX = pad+18;
         int barY = hudTop + 22;
@@ -1070,21 +1581,27 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
         g2.setColor(new Color(220,198,150,240));
         g2.setStroke(new BasicStroke(2.4f));
         g2.drawRoundRect(barX, barY, barW, barH, 14, 14);
-        g2.setFont(new Font("Garamond",Font.BOLD,18));
-        g2.setColor(new Color(245,238,228));
-        g2.drawString("HP " + hp + "/" + hpMax, barX+14, barY+barH-6);
+        int textY = barY + barH - 6;
+        int hpX = hpGlyphs.draw(g2, "HP ", barX+14, textY);
+        hpX = hpGlyphs.drawNumber(g2, hp, hpX, textY);
+        hpX = hpGlyphs.draw(g2, "/", hpX, textY);
+        hpGlyphs.drawNumber(g2, hpMax, hpX, textY);
 
-        g2.setFont(new Font("Garamond",Font.BOLD,17));
-        g2.setColor(new Color(228,214,190,235));
-        g2.drawString("Relics: " + relicBag.bagCount() + "/" + relicBag.goalCount(), barX + barW + 38, barY + barH - 6);
+        int relicX = relicGlyphs.draw(g2, "Relics: ", barX + barW + 38, textY);
+        relicX = relicGlyphs.drawNumber(g2, shot.relicsHeld, relicX, textY);
+        relicX = relicGlyphs.draw(g2, "/", relicX, textY);
+        relicGlyphs.drawNumber(g2, shot.relicGoal, relicX, textY);
     }
 
-    private void paintWhisper(Graphics2D g2){
-        int h = 56;
+    private void paintWhisper(Graphics2D g2, String whisper){
+        uiLayers.draw(g2, "whisper", UiLayerCache.inputs(getWidth(), getHeight(), whisper), whisperBounds(),
+                whisperPen -> paintWhisperBar(whisperPen, whisper));
+    }
+
+    private void paintWhisperBar(Graphics2D g2, String whisper){
+        int h = WHISPER_TALL;
         int pad = 20;
-        int hudH = 96;
-        int hudTop = Math.max(0, getHeight() - hudH - 12);
-        int y = Math.max(10, hudTop - h - 12);
+        int y = whisperTop();
         GradientPaint gp = new GradientPaint(0,y,new Color(38,30,22,236),0,y+h,new Color(20,16,12,236));
         g2.setPaint(gp);
         g2.fillRoundRect(pad-2, y, getWidth()-(pad-2)*2, h, 12, 12);
@@ -1098,7 +1615,7 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
         FontMetrics fm = g2.getFontMetrics();
         int tx = pad + 10;
         int ty = y + (h+fm.getAscent())/2 - 4;
-        g2.drawString(lastMessage, tx, ty);
+        g2.drawString(whisper, tx, ty);
     }
 
     private void drawVignette(Graphics2D shadePen){
@@ -1115,7 +1632,12 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
         shadePen.setComposite(oldInk);
     }
 
-    private void drawMathOverlay(Graphics2D g2) {
+    private void drawMathOverlay(Graphics2D g2, SceneSnapshot shot) {
+        uiLayers.draw(g2, "math", UiLayerCache.inputs(shot.mathQuestion, shot.mathText), fullScreen(),
+                mathPen -> paintMathPanel(mathPen, shot.mathQuestion, shot.mathText));
+    }
+
+    private void paintMathPanel(Graphics2D g2, String mathQuestion, String inputStr) {
         g2.setColor(new Color(0, 0, 0, 200));
         g2.fillRect(0, 0, getWidth(), getHeight());
 
@@ -1134,7 +1656,6 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
         FontMetrics fmQ = g2.getFontMetrics();
         g2.drawString(mathQuestion, boxX + 20, boxY + 30);
 
-        String inputStr = mathInput.toString();
         g2.setColor(Color.YELLOW);
         FontMetrics fmIn = g2.getFontMetrics();
         g2.drawString(inputStr, boxX + 12, boxY + (boxH + fmIn.getAscent() - fmIn.getDescent()) / 2);
@@ -1175,15 +1696,15 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
         return rows.length * (keyH + gap) - gap;
     }
 
-    private void drawGameOverOverlay(Graphics2D overPen){
+    private void drawGameOverOverlay(Graphics2D overPen, StoryView story){
         String bigShout;
-        if(gameWon){
+        if(story.gameWon){
             bigShout = "YOU RESTORED THE WORLD";
         } else {
             bigShout = "YOU FELL IN THE RUINS";
         }
 
-        long elapsed = deathAnimStartMs > 0 ? Math.max(0L, System.currentTimeMillis() - deathAnimStartMs) : 0L;
+        long elapsed = story.deathStartMs > 0 ? Math.max(0L, System.currentTimeMillis() - story.deathStartMs) : 0L;
         float t = Math.min(1f, elapsed / 2200f);
         int red = Math.min(255, 140 + (int)(115 * t));
         int green = (int)(20 * (1f - t));
@@ -1191,6 +1712,12 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
         overPen.setColor(new Color(red, Math.max(0, green), Math.max(0, green), alpha));
         overPen.fillRect(0, 0, getWidth(), getHeight());
 
+        String lilNote = story.postWinChoice ? "ESC = quit, ENTER = restart peaceful run." : "ESC = quit, ENTER = restart.";
+        uiLayers.draw(overPen, "gameOver", UiLayerCache.inputs(bigShout, lilNote), fullScreen(),
+                wordPen -> paintGameOverWords(wordPen, bigShout, lilNote));
+    }
+
+    private void paintGameOverWords(Graphics2D overPen, String bigShout, String lilNote){
         overPen.setFont(new Font("Consolas",Font.BOLD,26));
         overPen.setColor(new Color(255,255,255,230));
         FontMetrics wordSizer = overPen.getFontMetrics();
@@ -1202,19 +1729,23 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
         overPen.drawString(bigShout, centerX, centerY);
 
         overPen.setFont(new Font("Consolas", Font.PLAIN, 16));
-        String lilNote = postWinChoice ? "ESC = quit, ENTER = restart peaceful run." : "ESC = quit, ENTER = restart.";
         int lilWide = overPen.getFontMetrics().stringWidth(lilNote);
         overPen.drawString(lilNote, getWidth()/2 - lilWide/2, centerY+30);
     }
 
-    private void drawWinChoiceOverlay(Graphics2D g2){
+    private void drawWinChoiceOverlay(Graphics2D g2, StoryView story){
+        boolean endless = story.endlessMode;
+        uiLayers.draw(g2, "winChoice", UiLayerCache.inputs(endless), fullScreen(), pen -> paintWinChoice(pen, endless));
+    }
+
+    private void paintWinChoice(Graphics2D g2, boolean endless){
         int w = getWidth();
         int h = getHeight();
         g2.setColor(new Color(0, 0, 0, 205));
         g2.fillRect(0,0,w,h);
 
         g2.setFont(new Font("Consolas", Font.BOLD, 26));
-        String title = endlessMode ? "THE SHRINE IS STABLE" : "THE LAND IS HEALED";
+        String title = endless ? "THE SHRINE IS STABLE" : "THE LAND IS HEALED";
         FontMetrics fm = g2.getFontMetrics();
         int tx = (w - fm.stringWidth(title))/2;
         int ty = h/2 - fm.getHeight();
@@ -1231,19 +1762,13 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
         g2.drawString(line2, l2x, ty + 72);
     }
 
-    private void drawEscapeWinOverlay(Graphics2D g2){
+    private void drawEscapeWinOverlay(Graphics2D g2, StoryView story){
         int w = getWidth();
         int h = getHeight();
-        long elapsed = System.currentTimeMillis() - escapedWinStartMs;
+        long elapsed = System.currentTimeMillis() - story.escapedStartMs;
         float t = Math.min(1f, elapsed / 3200f);
         float pulse = (float)(0.6 + 0.4*Math.sin(elapsed/180.0));
 
-        // Initialize particles on first frame
-        if(!endingAnimStarted){
-            endingAnimStarted = true;
-            endingAnimStartMs = System.currentTimeMillis();
-        }
-
         // Radiant gradient backdrop with intensity pulse
         float backdropIntensity = 0.8f + 0.2f * pulse;
         Color top = new Color(30, 10, 50, (int)(240 * backdropIntensity));
@@ -1304,61 +1829,73 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
         g2.setColor(new Color(200, 100, 255, (int)(255 * charAlpha)));
         g2.fillRect(charX, charY, displayCharSize, displayCharSize);
 
-        // Particle burst effect
-        float particleAge = (System.currentTimeMillis() - endingAnimStartMs) / 1000f;
-        if(particleAge < 1.5f && endingParticles.isEmpty()){
-            // Create particles on first frame
-            java.util.Random prand = new java.util.Random();
-            for(int p = 0; p < 30; p++){
-                double angle = prand.nextDouble() * Math.PI * 2;
-                double speed = 80 + prand.nextDouble() * 200;
-                double vx = Math.cos(angle) * speed;
-                double vy = Math.sin(angle) * speed - 150;
-                Color[] colors = {
-                    new Color(255, 200, 100, 220),
-                    new Color(255, 255, 150, 220),
-                    new Color(200, 150, 255, 220),
-                    new Color(255, 150, 200, 220)
-                };
-                Color pcolor = colors[prand.nextInt(colors.length)];
-                endingParticles.add(new EndingParticle(charCenterX, charCenterY, vx, vy, 1.2f, 4 + prand.nextInt(5), pcolor));
-            }
-        }
-        
-        // Update and render particles
-        for(int i = endingParticles.size() - 1; i >= 0; i--){
-            EndingParticle p = endingParticles.get(i);
-            p.update(0.016f);
-            if(!p.isAlive()){
-                endingParticles.remove(i);
-            } else {
-                p.render(g2, 0, 0);
-            }
-        }
+        // Particle burst, spawned and stepped by the sim around where the character starts
+        sparks.draw(g2, w/2, h/2);
 
         // Text
         g2.setColor(new Color(255, 248, 240));
-        g2.setFont(new Font("Garamond", Font.BOLD, 40));
+        g2.setFont(TextCache.font("Garamond", Font.BOLD, 40));
         String title = "YOU ESCAPED WITH THE RELICS";
-        int tw = g2.getFontMetrics().stringWidth(title);
+        int tw = TextCache.width(g2.getFontMetrics(), title);
         int titleY = (int)(h/2 - 40 + Math.sin(elapsed/250.0) * 8);
         g2.drawString(title, (w - tw)/2, titleY);
 
-        g2.setFont(new Font("Consolas", Font.PLAIN, 20));
+        g2.setFont(TextCache.font("Consolas", Font.PLAIN, 20));
         String line1 = "Light folds around you. The corruption dissolves.";
         String line2 = "The relics hum — their promise kept.";
-        int l1w = g2.getFontMetrics().stringWidth(line1);
-        int l2w = g2.getFontMetrics().stringWidth(line2);
+        int l1w = TextCache.width(g2.getFontMetrics(), line1);
+        int l2w = TextCache.width(g2.getFontMetrics(), line2);
         g2.drawString(line1, (w - l1w)/2, h/2 + 6);
         g2.drawString(line2, (w - l2w)/2, h/2 + 32);
 
-        g2.setFont(new Font("Garamond", Font.BOLD, 22));
+        g2.setFont(TextCache.font("Garamond", Font.BOLD, 22));
         String prompt = "Press ESC to leave the restored world.";
-        int pw = g2.getFontMetrics().stringWidth(prompt);
+        int pw = TextCache.width(g2.getFontMetrics(), prompt);
         int promptY = h - 60 + (int)(Math.sin(elapsed/400.0) * 4);
         g2.drawString(prompt, (w - pw)/2, promptY);
     }
 
+    private void findTorches(){
+        if(mapLoader == null) return;
+        int[][] torchLayer = mapLoader.getLayer("lights");
+        if(torchLayer == null) return;
+        int[] found = new int[16];
+        int count = 0;
+        for(int y=0;y<torchLayer.length;y++){
+            for(int x=0;x<torchLayer[y].length;x++){
+                if(torchLayer[y][x] == 0) continue;
+                if(count == found.length) found = java.util.Arrays.copyOf(found, count*2);
+                found[count++] = y*world.getWidth() + x;
+            }
+        }
+        torchCells = java.util.Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Everything that glows this frame: torches, loose relics, the open shrine and the
+     * necromancer's casts. Returns the tiles whose light changed since the last frame, or null.
+     */
+    private Rectangle gatherLights(SceneSnapshot shot, int left, int top, int wide, int tall, float blend){
+        lights.begin(left, top, wide, tall);
+        int mapWide = world.getWidth();
+        for(int cell : torchCells){
+            lights.add(cell % mapWide + 0.5f, cell / mapWide + 0.5f, 4f, 0.8f);
+        }
+        for(RelicDrop drop : shot.drops){
+            lights.add(drop.x + 0.5f, drop.y + 0.5f, 2.5f, 0.6f);
+        }
+        if(shot.haloOn){
+            float shrineX = (endingMinX + endingMaxX + 1) / 2f;
+            float shrineY = (endingMinY + endingMaxY + 1) / 2f;
+            float reach = Math.max(endingMaxX - endingMinX, endingMaxY - endingMinY) / 2f + 3f;
+            lights.add(shrineX, shrineY, reach, 0.9f);
+        }
+        for(SpriteView fx : shot.blasts){
+            lights.add(fx.shownX(blend), fx.shownY(blend), 3f, 0.9f);
+        }
+        return lights.finish();
+    }
+
     private void computeEndingBounds(){
         if(mapLoader == null) return;
         int[][] ending = mapLoader.getLayer("ending");
@@ -1384,77 +1921,59 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
         }
     }
 
-    private void drawTile(Graphics2D tilePen,boolean blocked,int paintX,int paintY,
-                          boolean isPlayerHere,int worldX,int worldY,int tileSize,double corruptionStrength){
-
-        Color floorInk=new Color(20,25,28);
-        tilePen.setColor(floorInk);
-        tilePen.fillRect(paintX,paintY,tileSize,tileSize);
-
-        if(mapLoader!=null){
-            java.util.List<int[][]> layers=mapLoader.getVisualLayers();
-            for(int layerIndex=0;layerIndex<layers.size();layerIndex++){
-                int[][] layerGrid=layers.get(layerIndex);
-                int gid=layerGrid[worldY][worldX];
-                if(gid<=0) continue;
-                // Skip rendering ending tiles; they are portal markers only
-                if(mapLoader.getLayer("ending") == layerGrid) continue;
-                java.awt.image.BufferedImage imgTile=mapLoader.getTileImage(gid);
-                if(imgTile!=null){
-                    tilePen.drawImage(imgTile,paintX,paintY,tileSize,tileSize,null);
-                }
-            }
-        }
+    /** Per-tile extras on top of the baked chunk art: loose relics and corruption. */
+    private void drawTile(RenderQueue tilePen,List<RelicDrop> drops,int paintX,int paintY,
+                          int worldX,int worldY,int tileSize,double corruptionStrength){
 
-        for(RelicDrop drop : looseShinies){
+        for(RelicDrop drop : drops){
             if(drop.x==worldX && drop.y==worldY && drop.pic!=null){
-                int dropW=Math.max(18, tileSize-32);
-                int dropH=Math.max(18, tileSize-32);
+                double zoom = tileSize / (double)screenTileSize();
+                int dropW=(int)Math.round(Math.max(18, screenTileSize()-32) * zoom);
+                int dropH=dropW;
                 int dropX = paintX + (tileSize - dropW)/2;
                 int dropY = paintY + (tileSize - dropH)/2;
 
-                // subtle halo just on this tile and under fog
-                double pulse = Math.sin(System.currentTimeMillis()/780.0)*0.04;
-                int haloSize = (int)(tileSize*(0.92 + pulse));
-                int haloX = paintX + (tileSize - haloSize)/2;
-                int haloY = paintY + (tileSize - haloSize)/2;
-                tilePen.setColor(new Color(255, 230, 180, 52));
-                tilePen.fillOval(haloX, haloY, haloSize, haloSize);
-                tilePen.setColor(new Color(255, 245, 220, 36));
-                tilePen.fillOval(haloX+2, haloY+2, haloSize-4, haloSize-4);
-
-                int bob = (int)(Math.sin(System.currentTimeMillis()/520.0) * 3);
-                tilePen.drawImage(drop.pic, dropX, dropY + bob, dropW, dropH, null);
+                int bob = 0;
+                if(frameQuality.halos){
+                    // subtle halo just on this tile and under fog
+                    double pulse = Math.sin(System.currentTimeMillis()/780.0)*0.04;
+                    int haloSize = (int)(tileSize*(0.92 + pulse));
+                    int haloX = paintX + (tileSize - haloSize)/2;
+                    int haloY = paintY + (tileSize - haloSize)/2;
+                    tilePen.fillOval(RenderQueue.Layer.GROUND, 0, haloX, haloY, haloSize, haloSize, 0x34FFE6B4);
+                    tilePen.fillOval(RenderQueue.Layer.GROUND, 0, haloX+2, haloY+2, haloSize-4, haloSize-4, 0x24FFF5DC);
+                    bob = (int)(Math.sin(System.currentTimeMillis()/520.0) * 3 * zoom);
+                }
+                tilePen.blendScaled(RenderQueue.Layer.GROUND, 0, spriteAtlas.regionOf(drop.pic), dropX, dropY + bob, dropW, dropH);
                 break;
             }
         }
 
         if(corruptionStrength>0.01){
             int spookyAlpha=(int)Math.min(230,Math.round(230*corruptionStrength));
-            tilePen.setColor(new Color(80,40,120,spookyAlpha));
-            tilePen.fillRect(paintX,paintY,tileSize,tileSize);
-        }
-
-        if(isPlayerHere){
-            boolean walking = moving && (System.currentTimeMillis()-lastMoveMs) < 320L;
-            boolean hurt = hurtAnimStartMs > 0 && (System.currentTimeMillis()-hurtAnimStartMs) < hurtAnimDurationMs;
-            boolean dying = gameOver && deathAnimStartMs > 0;
-            BufferedImage frame = pickFace(walking, hurt, dying);
-            if(frame!=null){
-                int faceW = frame.getWidth()*5;
-                int faceH = frame.getHeight()*5;
-                int faceX = paintX + (tileSize - faceW)/2;
-                int faceY = paintY + (tileSize - faceH)/2;
-                if(facingRight){
-                    tilePen.drawImage(frame, faceX, faceY, faceW, faceH, null);
-                } else {
-                    tilePen.drawImage(frame, faceX+faceW, faceY, -faceW, faceH, null);
-                }
+            tilePen.fill(RenderQueue.Layer.TINT, 0, paintX,paintY,tileSize,tileSize, spookyAlpha << 24 | 0x502878);
+        }
+    }
+
+    /** The player sprite, centred on the tile-sized cell at (paintX,paintY) and sorted by that centre. */
+    private void drawHero(RenderQueue tilePen,SpriteView hero,int paintX,int paintY,int tileSize){
+        int standY = paintY + tileSize/2;
+        BufferedImage frame = hero.frame;
+        if(frame!=null){
+            double zoom = 5.0 * tileSize / screenTileSize();
+            int faceW = (int)Math.round(frame.getWidth()*zoom);
+            int faceH = (int)Math.round(frame.getHeight()*zoom);
+            int faceX = paintX + (tileSize - faceW)/2;
+            int faceY = paintY + (tileSize - faceH)/2;
+            AtlasRegion face = spriteAtlas.regionOf(frame);
+            if(hero.facingRight){
+                tilePen.blendScaled(RenderQueue.Layer.ACTORS, standY, face, faceX, faceY, faceW, faceH);
             } else {
-                tilePen.setColor(new Color(240,240,255));
-                int inset=Math.max(4,tileSize/8);
-                tilePen.fillRect(paintX+inset,paintY+inset,tileSize-inset*2,tileSize-inset*2);
+                tilePen.blendScaled(RenderQueue.Layer.ACTORS, standY, face, faceX+faceW, faceY, -faceW, faceH);
             }
+        } else {
+            int inset=Math.max(4,tileSize/8);
+            tilePen.fill(RenderQueue.Layer.ACTORS, standY, paintX+inset,paintY+inset,tileSize-inset*2,tileSize-inset*2, 0xFFF0F0FF);
         }
     }
 
@@ -1524,9 +2043,34 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
         float orbitAngleRad = 0f;
         int orbitDir = 1;
         long nextOrbitFlipMs = 0L;
+        // drawn position glides after (x,y) so tile hops don't snap on screen
+        float drawnX;
+        float drawnY;
+        float lastDrawnX;
+        float lastDrawnY;
         Monster(float x,float y,BufferedImage[] frames,float speedTilesPerSec, MonsterType type){
             this.x=x; this.y=y; this.frames=frames; this.speedTilesPerSec=speedTilesPerSec; this.type=type;
             this.walkFrames = frames;
+            this.drawnX = this.lastDrawnX = x;
+            this.drawnY = this.lastDrawnY = y;
+        }
+        void glide(float stepSeconds){
+            lastDrawnX = drawnX;
+            lastDrawnY = drawnY;
+            float gapX = x - drawnX;
+            float gapY = y - drawnY;
+            float gap = (float)Math.sqrt(gapX*gapX + gapY*gapY);
+            float reach = Math.max(1f, speedTilesPerSec) * stepSeconds;
+            if(gap > Player.SNAP_TILES){
+                drawnX = lastDrawnX = x;
+                drawnY = lastDrawnY = y;
+            } else if(gap <= reach){
+                drawnX = x;
+                drawnY = y;
+            } else {
+                drawnX += gapX / gap * reach;
+                drawnY += gapY / gap * reach;
+            }
         }
         BufferedImage pickFrame(){
             if(type == MonsterType.GOLEM){
@@ -1591,8 +2135,11 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
         final long startMs;
         final long lifeMs = 2200L;
         boolean facingRight;
+        float lastX;
+        float lastY;
         AttackEffect(float x,float y,float dx,float dy,BufferedImage[] frames,boolean facingRight){
             this.x=x; this.y=y; this.dx=dx; this.dy=dy; this.frames=frames; this.startMs=System.currentTimeMillis();
+            this.lastX=x; this.lastY=y;
             this.facingRight = facingRight;
         }
         boolean expired(){
@@ -1609,13 +2156,14 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
     private final java.util.List<AttackEffect> spookyBlasts = new java.util.ArrayList<>();
 
     private void wakeFog() {
-        discovered = new boolean[world.getHeight()][world.getWidth()];
+        int[] bandOfRow = new int[world.getHeight()];
+        for(int y=0;y<bandOfRow.length;y++){
+            bandOfRow[y] = world.baseForRow(y).ordinal();
+        }
+        discovered = new FogField(world.getWidth(), world.getHeight(), bandOfRow, TileType.values().length);
+        fogMask = new FogMask(world.getWidth(), world.getHeight());
         if(noFog){
-            for(int y=0;y<discovered.length;y++){
-                for(int x=0;x<discovered[0].length;x++){
-                    discovered[y][x] = true;
-                }
-            }
+            discovered.revealAll();
         } else {
             peelFog(player.getTileX(), player.getTileY());
         }
@@ -1628,27 +2176,24 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
         if(noFog){
             return;
         }
+        discovered.stamp(cx, cy, revealRing * (1.0 - 0.4 * weather.sightLoss()));
+    }
 
-        int r = (int)Math.ceil(revealRing);
-        double r2 = revealRing * revealRing;
+    /** Share of the given biome band (GRASS, SAND or RUIN_FLOOR) the player has uncovered, 0..1. */
+    private double exploredShare(TileType band){
+        return discovered == null ? 0.0 : discovered.exploredFraction(band.ordinal());
+    }
 
-        for(int y = cy - r; y <= cy + r; y++){
-            for(int x = cx - r; x <= cx + r; x++){
-                if(!world.inBounds(x, y)) continue;
-                double dx = x - cx;
-                double dy = y - cy;
-                if(dx*dx + dy*dy <= r2 + 0.25){
-                    discovered[y][x] = true;
-                }
-            }
-        }
+    // Called when the fog, the hero's tile or the weather change, or the view leaves the mask
+    // (a moving light only touches up its own tiles); the margin keeps the bilinear fog edge
+    // right at the view border.
+    private void refreshFogMask(int viewLeft, int viewTop, int viewWide, int viewTall){
+        if(fogMask == null || noFog || viewWide <= 0 || viewTall <= 0) return;
+        fogMask.refresh(viewLeft-1, viewTop-1, viewWide+2, viewTall+2, this::fogAlphaForTile);
     }
 
     private boolean isDiscovered(int x, int y){
-        return discovered != null
-                && y >= 0 && y < discovered.length
-                && x >= 0 && x < discovered[0].length
-                && discovered[y][x];
+        return discovered != null && discovered.isRevealed(x, y);
     }
 
     private boolean hasDrop(int x,int y){
@@ -1753,7 +2298,7 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
                 fw = Math.max(1, fw);
                 out[i] = sheet.getSubimage(fx, 0, fw, h);
             }
-            return out;
+            return trimmedFrames.trim(out);
         } catch(Exception ex){
             return null;
         }
@@ -2505,7 +3050,7 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
     }
 
     private float mTickTiles(){
-        return tickMs / 1000f;
+        return simClock.stepSeconds();
     }
 
     private boolean attemptMonsterStep(Monster m, int tx, int ty){
@@ -2593,24 +3138,27 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
         int targetX = player.getTileX() + dx;
         int targetY = player.getTileY() + dy;
         if(canWalk(targetX, targetY)){
-            player.setPosition(targetX, targetY);
+            player.setTargetPosition(targetX, targetY);
             peelFog(targetX, targetY);
         }
     }
 
-    private void drawMonsters(Graphics2D monsterCrayon, int viewLeft, int viewTop, int tileSize, int viewWidthTiles, int viewHeightTiles){
-        for(Monster beast: monsters){
-            int gridX = (int)Math.floor(beast.x);
-            int gridY = (int)Math.floor(beast.y);
+    private void drawMonsters(RenderQueue monsterCrayon, GraphicsConfiguration bakeCfg, SceneSnapshot shot, int viewLeft, int viewTop, int tileSize, int viewWidthTiles, int viewHeightTiles, float blend){
+        for(SpriteView beast: shot.beasts){
+            float shownX = beast.shownX(blend);
+            float shownY = beast.shownY(blend);
+            int gridX = (int)Math.floor(shownX);
+            int gridY = (int)Math.floor(shownY);
             if(gridX < viewLeft || gridX >= viewLeft + viewWidthTiles) continue;
             if(gridY < viewTop || gridY >= viewTop + viewHeightTiles) continue;
 
-            double canvasX = (beast.x - viewLeft) * tileSize;
-            double canvasY = (beast.y - viewTop) * tileSize;
+            double canvasX = (shownX - viewLeft) * tileSize;
+            double canvasY = (shownY - viewTop) * tileSize;
 
-            BufferedImage facePic = beast.pickFrame();
+            BufferedImage facePic = beast.frame;
             if(facePic != null){
-                double squishRatio = facePic.getHeight() / (double)Math.max(1, facePic.getWidth());
+                TrimmedFrames.Anchor faceBox = trimmedFrames.anchorOf(facePic);
+                double squishRatio = faceBox.fullTall / (double)Math.max(1, faceBox.fullWide);
                 double blobbyScale;
                 int spriteWide;
                 int spriteTall;
@@ -2619,9 +3167,9 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
                     spriteWide = (int)Math.round(tileSize * blobbyScale);
                     spriteTall = spriteWide; // lock height to width to prevent frame-based size pops
                     // center all frames identically to avoid idle/attack size pops
-                    double maxDim = Math.max(facePic.getWidth(), facePic.getHeight());
-                    double normW = facePic.getWidth() / Math.max(1.0, maxDim);
-                    double normH = facePic.getHeight() / Math.max(1.0, maxDim);
+                    double maxDim = Math.max(faceBox.fullWide, faceBox.fullTall);
+                    double normW = faceBox.fullWide / Math.max(1.0, maxDim);
+                    double normH = faceBox.fullTall / Math.max(1.0, maxDim);
                     spriteWide = (int)Math.round(tileSize * blobbyScale * normW);
                     spriteTall = (int)Math.round(tileSize * blobbyScale * normH);
                 } else if(beast.type == MonsterType.GOLEM){
@@ -2634,70 +3182,247 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
                     spriteTall = (int)Math.round(spriteWide * squishRatio);
                 }
                 int paintX = (int)Math.round(canvasX - spriteWide/2.0);
-                int paintY = topPad + (int)Math.round(canvasY - spriteTall/2.0);
+                int paintY = (int)Math.round(canvasY - spriteTall/2.0);
 
                 int fogShade = fogAlphaForTile(gridX, gridY);
-                double purpleMood = moodHaziness(gridX, gridY);
+                double purpleMood = shot.creep > 0.0 ? corruptionField.strengthAt(gridX, gridY, shot.creep) : 0.0;
                 float fogFade = (float)(1.0 - Math.min(0.82, fogShade/255.0 * 0.9));
                 float moodFade = (float)(1.0 - Math.min(0.55, purpleMood * 0.7));
                 float finalFade = Math.max(0f, Math.min(1f, fogFade * moodFade));
-
-                if(finalFade < 0.999f){
-                    java.awt.image.RescaleOp rescale = new java.awt.image.RescaleOp(
-                            new float[]{finalFade, finalFade, finalFade, 1f},
-                            new float[]{0f,0f,0f,0f}, null);
-                    BufferedImage ghostPic = new BufferedImage(facePic.getWidth(), facePic.getHeight(), BufferedImage.TYPE_INT_ARGB);
-                    Graphics2D ghostPen = ghostPic.createGraphics();
-                    ghostPen.drawImage(facePic, 0, 0, null);
-                    ghostPen.dispose();
-                    ghostPic = rescale.filter(ghostPic, null);
-                    drawFlipped(monsterCrayon, ghostPic, paintX, paintY, spriteWide, spriteTall, beast.facingRight);
-                } else {
-                    drawFlipped(monsterCrayon, facePic, paintX, paintY, spriteWide, spriteTall, beast.facingRight);
+                int fadeSteps = frameQuality.fadeSteps;
+                if(fadeSteps < TintCache.FADE_STEPS){
+                    finalFade = Math.round(finalFade * fadeSteps) / (float)fadeSteps;
                 }
-            }
-        }
 
-        // draw necro attack effects
-        java.util.List<AttackEffect> expired = new java.util.ArrayList<>();
-        for(AttackEffect fx : spookyBlasts){
-            if(fx.expired()){
-                expired.add(fx);
-                continue;
+                drawTrimmed(monsterCrayon, RenderQueue.Layer.ACTORS, (int)Math.round(canvasY), bakeCfg,
+                        facePic, finalFade, beast.facingRight, paintX, paintY, spriteWide, spriteTall);
             }
-            fx.x += fx.dx * (tickMs/1000f);
-            fx.y += fx.dy * (tickMs/1000f);
+        }
 
-            int gx = (int)Math.floor(fx.x);
-            int gy = (int)Math.floor(fx.y);
+        // draw necro attack effects (they move in stepMotion)
+        for(SpriteView fx : shot.blasts){
+            float shownX = fx.shownX(blend);
+            float shownY = fx.shownY(blend);
+            int gx = (int)Math.floor(shownX);
+            int gy = (int)Math.floor(shownY);
             if(gx < viewLeft || gx >= viewLeft + viewWidthTiles) continue;
             if(gy < viewTop || gy >= viewTop + viewHeightTiles) continue;
 
-            double screenX = (fx.x - viewLeft) * tileSize;
-            double screenY = (fx.y - viewTop) * tileSize;
-            BufferedImage frame = fx.pickFrame();
+            double screenX = (shownX - viewLeft) * tileSize;
+            double screenY = (shownY - viewTop) * tileSize;
+            BufferedImage frame = fx.frame;
             if(frame != null){
-                double ratio = frame.getHeight() / (double)Math.max(1, frame.getWidth());
+                TrimmedFrames.Anchor frameBox = trimmedFrames.anchorOf(frame);
+                double ratio = frameBox.fullTall / (double)Math.max(1, frameBox.fullWide);
                 double scale = 9.5; // even larger for visibility
                 int sw = (int)Math.round(tileSize * scale);
                 int sh = (int)Math.round(sw * ratio);
                 int dx = (int)Math.round(screenX - sw/2.0);
-                int dy = topPad + (int)Math.round(screenY - sh/2.0);
-                drawFlipped(monsterCrayon, frame, dx, dy, sw, sh, fx.facingRight);
+                int dy = (int)Math.round(screenY - sh/2.0);
+                drawTrimmed(monsterCrayon, RenderQueue.Layer.EFFECTS, 0, bakeCfg, frame, 1f, fx.facingRight, dx, dy, sw, sh);
             }
         }
-        spookyBlasts.removeAll(expired);
     }
 
-    private void drawFlipped(Graphics2D flipPen, BufferedImage spritePic, int paintX, int paintY, int paintW, int paintH, boolean lookRight){
-        if(lookRight){
-            flipPen.drawImage(spritePic, paintX, paintY, paintW, paintH, null);
-        } else {
-            flipPen.drawImage(spritePic, paintX + paintW, paintY, -paintW, paintH, null);
+    // Queue just the opaque crop of a frame, pre-scaled, where the whole frame would cover (paintX, paintY, paintW, paintH).
+    private void drawTrimmed(RenderQueue pen, RenderQueue.Layer layer, int sortY, GraphicsConfiguration bakeCfg,
+                             BufferedImage frame, float fade, boolean lookRight, int paintX, int paintY, int paintW, int paintH){
+        TrimmedFrames.Anchor box = trimmedFrames.anchorOf(frame);
+        double scaleX = paintW / (double)box.fullWide;
+        double scaleY = paintH / (double)box.fullTall;
+        int cropLeft = lookRight ? box.x : box.fullWide - box.x - frame.getWidth();
+        int left = paintX + (int)Math.round(cropLeft * scaleX);
+        int right = paintX + (int)Math.round((cropLeft + frame.getWidth()) * scaleX);
+        int top = paintY + (int)Math.round(box.y * scaleY);
+        int bottom = paintY + (int)Math.round((box.y + frame.getHeight()) * scaleY);
+        if(right <= left || bottom <= top) return;
+        BufferedImage ready = tintedFrames.variant(frame, fade, lookRight, right - left, bottom - top, bakeCfg);
+        pen.blend(layer, sortY, ready, left, top);
+    }
+
+    private void stepMotion(){
+        float stepSeconds = simClock.stepSeconds();
+        tileClockMs += tickMs;
+        if(endingAnimStarted && sparks.isEmpty() && System.currentTimeMillis() - endingAnimStartMs < 1500L){
+            burstEndingSparks();
+        }
+        sparks.step(stepSeconds);
+        weather.step(stepSeconds, world.baseForRow(player.getTileY()));
+        spookyBlasts.removeIf(AttackEffect::expired);
+        for(AttackEffect fx : spookyBlasts){
+            fx.lastX = fx.x;
+            fx.lastY = fx.y;
+            fx.x += fx.dx * stepSeconds;
+            fx.y += fx.dy * stepSeconds;
+        }
+        for(Monster m : monsters){
+            m.glide(stepSeconds);
+        }
+        player.update(stepSeconds * 1000f / MOVE_GAP_MS);
+    }
+
+    // Relative to where the ascending character starts; drawEscapeWinOverlay places it.
+    private void burstEndingSparks(){
+        int burst = Math.max(1, Math.round(30 * governor.level().particleShare));
+        for(int p = 0; p < burst; p++){
+            double angle = sparkDice.nextDouble() * Math.PI * 2;
+            double speed = 80 + sparkDice.nextDouble() * 200;
+            float vx = (float)(Math.cos(angle) * speed);
+            float vy = (float)(Math.sin(angle) * speed - 150);
+            sparks.spawn(0f, 0f, vx, vy, 1.2f, 4 + sparkDice.nextInt(5), endingInks[sparkDice.nextInt(endingInks.length)]);
         }
     }
 
-    private void drawFirstRelicCutsceneOverlay(Graphics2D g2){
+    // Runs on the sim thread: copy out everything the painter needs that the sim keeps changing.
+    // The weather and the ending sparks are the exceptions: their particle pools are too big to
+    // copy every step, so the painter draws them in place under each one's own lock.
+    private void publishSnapshot(){
+        boolean walking = moving && (System.currentTimeMillis()-lastMoveMs) < 320L;
+        boolean hurt = hurtAnimStartMs > 0 && (System.currentTimeMillis()-hurtAnimStartMs) < hurtAnimDurationMs;
+        boolean dying = gameOver && deathAnimStartMs > 0;
+        SpriteView hero = new SpriteView(player.getDrawnX(0f), player.getDrawnY(0f),
+                player.getDrawnX(1f), player.getDrawnY(1f), pickFace(walking, hurt, dying), facingRight, null);
+        List<SpriteView> beasts = new ArrayList<>(monsters.size());
+        for(Monster m : monsters){
+            beasts.add(new SpriteView(m.lastDrawnX, m.lastDrawnY, m.drawnX, m.drawnY, m.pickFrame(), m.facingRight, m.type));
+        }
+        List<SpriteView> blasts = new ArrayList<>(spookyBlasts.size());
+        for(AttackEffect fx : spookyBlasts){
+            blasts.add(new SpriteView(fx.lastX, fx.lastY, fx.x, fx.y, fx.pickFrame(), fx.facingRight, null));
+        }
+        boolean overlay = firstRelicCutsceneActive || secondRelicCutsceneActive || thirdRelicCutsceneActive
+                || necroCutsceneActive || gameOver || gameWon;
+        snapshot = new SceneSnapshot(simClock.stepStartNanos(), simClock.stepNanos(),
+                onStartScreen || startFading || waitingForContinue, startFading, waitingForContinue,
+                overlay, mathActive, relicBag.doneGathering() && endingMinX >= 0,
+                hero, player.getTileX(), player.getTileY(), List.copyOf(beasts), List.copyOf(blasts),
+                List.copyOf(looseShinies), player.getHearts(), player.getMaxHearts(),
+                relicBag.bagCount(), relicBag.goalCount(), lastMessage,
+                corruptionProgress(), frozenFog(), tileClockMs, weather.showing(), weather.sightLoss(),
+                mathQuestion, mathInput.toString(), new StoryView(this));
+    }
+
+    // The fog as the painter should see it, copied again only when a tile has flipped since.
+    private FogField frozenFog(){
+        if(publishedFog == null || publishedFogOf != discovered || publishedFog.revision() != discovered.revision()){
+            publishedFog = discovered.frozenCopy();
+            publishedFogOf = discovered;
+        }
+        return publishedFog;
+    }
+
+    /** Something that moves, as of the last two sim steps. */
+    private static final class SpriteView{
+        final float lastX, lastY, x, y;
+        final BufferedImage frame;
+        final boolean facingRight;
+        final MonsterType type;
+        SpriteView(float lastX,float lastY,float x,float y,BufferedImage frame,boolean facingRight,MonsterType type){
+            this.lastX=lastX; this.lastY=lastY; this.x=x; this.y=y;
+            this.frame=frame; this.facingRight=facingRight; this.type=type;
+        }
+        float shownX(float blend){ return lastX + (x - lastX) * blend; }
+        float shownY(float blend){ return lastY + (y - lastY) * blend; }
+        boolean gliding(){ return lastX != x || lastY != y; }
+        boolean sameAs(SpriteView o){
+            return x == o.x && y == o.y && lastX == o.lastX && lastY == o.lastY
+                    && frame == o.frame && facingRight == o.facingRight;
+        }
+    }
+
+    /** Cutscenes, endings and the corruption tint as of the last step, for the overlays over the world. */
+    private static final class StoryView{
+        final boolean fadeDone;
+        final long fadeStartMs;
+        final boolean firstActive, secondActive, thirdActive, necroActive;
+        final boolean firstWaiting, secondWaiting, thirdWaiting, necroWaiting;
+        final long firstStartMs, secondStartMs, thirdStartMs, necroStartMs;
+        final boolean gameOver, gameWon, postWinChoice, escapedWin, endlessMode;
+        final long deathStartMs, escapedStartMs;
+        /** Wash laid over the whole screen, or null. */
+        final Color tint;
+        // Sim thread only, like publishSnapshot.
+        StoryView(GamePanel game){
+            fadeDone=game.fadeDone; fadeStartMs=game.fadeStartMs;
+            firstActive=game.firstRelicCutsceneActive; secondActive=game.secondRelicCutsceneActive;
+            thirdActive=game.thirdRelicCutsceneActive; necroActive=game.necroCutsceneActive;
+            firstWaiting=game.firstRelicCutsceneAwaitingContinue; secondWaiting=game.secondRelicCutsceneAwaitingContinue;
+            thirdWaiting=game.thirdRelicCutsceneAwaitingContinue; necroWaiting=game.necroCutsceneAwaitingContinue;
+            firstStartMs=game.firstRelicCutsceneStartMs; secondStartMs=game.secondRelicCutsceneStartMs;
+            thirdStartMs=game.thirdRelicCutsceneStartMs; necroStartMs=game.necroCutsceneStartMs;
+            gameOver=game.gameOver; gameWon=game.gameWon; postWinChoice=game.postWinChoice;
+            escapedWin=game.escapedWin; endlessMode=game.endlessMode;
+            deathStartMs=game.deathAnimStartMs; escapedStartMs=game.escapedWinStartMs;
+            boolean tinted = !game.noCorruption && game.corruptionTintActive && !firstActive && !secondActive;
+            tint = !tinted ? null : game.corruptionPhaseTwo ? new Color(150,40,90,70) : new Color(90,60,130,40);
+        }
+    }
+
+    /**
+     * Immutable picture of the sim handed from the sim thread to whoever paints. Everything the
+     * painter reads comes from here except the weather and the ending sparks, which it draws in
+     * place under their own locks.
+     */
+    private static final class SceneSnapshot{
+        final long stepStartNanos;
+        final long stepNanos;
+        final boolean onTitle;
+        final boolean fading;
+        final boolean awaitingContinue;
+        final boolean overlay;
+        final boolean mathUp;
+        final boolean haloOn;
+        final boolean gliding;
+        final SpriteView hero;
+        final int heroTileX, heroTileY;
+        final List<SpriteView> beasts;
+        final List<SpriteView> blasts;
+        final List<RelicDrop> drops;
+        final int hearts, maxHearts;
+        final int relicsHeld, relicGoal;
+        final String message;
+        final double creep;
+        /** Frozen copy of the fog; never written once published. */
+        final FogField fog;
+        final long tileClockMs;
+        final boolean weatherOn;
+        /** How far the weather pulls the fog in, 0..1. */
+        final float sightLoss;
+        final String mathQuestion;
+        final String mathText;
+        final StoryView story;
+        SceneSnapshot(long stepStartNanos,long stepNanos,boolean onTitle,boolean fading,boolean awaitingContinue,
+                      boolean overlay,boolean mathUp,boolean haloOn,SpriteView hero,int heroTileX,int heroTileY,
+                      List<SpriteView> beasts,List<SpriteView> blasts,List<RelicDrop> drops,int hearts,int maxHearts,
+                      int relicsHeld,int relicGoal,String message,double creep,FogField fog,long tileClockMs,
+                      boolean weatherOn,float sightLoss,String mathQuestion,String mathText,StoryView story){
+            this.stepStartNanos=stepStartNanos; this.stepNanos=stepNanos; this.onTitle=onTitle;
+            this.fading=fading; this.awaitingContinue=awaitingContinue;
+            this.overlay=overlay; this.mathUp=mathUp; this.haloOn=haloOn;
+            this.hero=hero; this.heroTileX=heroTileX; this.heroTileY=heroTileY;
+            this.beasts=beasts; this.blasts=blasts; this.drops=drops;
+            this.hearts=hearts; this.maxHearts=maxHearts; this.relicsHeld=relicsHeld; this.relicGoal=relicGoal;
+            this.message=message; this.creep=creep; this.fog=fog;
+            this.tileClockMs=tileClockMs; this.weatherOn=weatherOn; this.sightLoss=sightLoss;
+            this.mathQuestion=mathQuestion; this.mathText=mathText; this.story=story;
+            boolean anyGliding = hero.gliding();
+            for(SpriteView v : beasts) anyGliding |= v.gliding();
+            for(SpriteView v : blasts) anyGliding |= v.gliding();
+            this.gliding = anyGliding;
+        }
+        /** How far (0..1) real time has moved from the last step toward the next one. */
+        float blend(long nowNanos){
+            return Math.max(0f, Math.min(1f, (nowNanos - stepStartNanos) / (float)stepNanos));
+        }
+    }
+
+    private void drawFirstRelicCutsceneOverlay(Graphics2D g2, StoryView story){
+        boolean waiting = story.firstWaiting;
+        uiLayers.draw(g2, "cutsceneFirst", UiLayerCache.inputs(waiting), fullScreen(),
+                pen -> paintFirstRelicCutscene(pen, waiting));
+    }
+
+    private void paintFirstRelicCutscene(Graphics2D g2, boolean waiting){
         int w = getWidth();
         int h = getHeight();
         g2.setColor(new Color(0,0,0,180));
@@ -2728,7 +3453,7 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
         g2.setColor(new Color(210,72,72,240));
         g2.drawString(warn, warnX, warnY);
 
-        String prompt = firstRelicCutsceneAwaitingContinue ? "Click or press any key to steel yourself." : "...";
+        String prompt = waiting ? "Click or press any key to steel yourself." : "...";
         g2.setFont(new Font("Garamond", Font.BOLD, 18));
         FontMetrics promptMetrics = g2.getFontMetrics();
         int promptX = (w - promptMetrics.stringWidth(prompt))/2;
@@ -2737,7 +3462,13 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
         g2.drawString(prompt, promptX, promptY);
     }
 
-    private void drawSecondRelicCutsceneOverlay(Graphics2D g2){
+    private void drawSecondRelicCutsceneOverlay(Graphics2D g2, StoryView story){
+        boolean waiting = story.secondWaiting;
+        uiLayers.draw(g2, "cutsceneSecond", UiLayerCache.inputs(waiting), fullScreen(),
+                pen -> paintSecondRelicCutscene(pen, waiting));
+    }
+
+    private void paintSecondRelicCutscene(Graphics2D g2, boolean waiting){
         int w = getWidth();
         int h = getHeight();
         g2.setColor(new Color(40,0,0,190));
@@ -2769,7 +3500,7 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
         g2.setColor(new Color(230,70,90,245));
         g2.drawString(warn, warnX, warnY);
 
-        String prompt = secondRelicCutsceneAwaitingContinue ? "Click or press any key to face it." : "...";
+        String prompt = waiting ? "Click or press any key to face it." : "...";
         g2.setFont(new Font("Garamond", Font.BOLD, 19));
         FontMetrics promptMetrics = g2.getFontMetrics();
         int promptX = (w - promptMetrics.stringWidth(prompt))/2;
@@ -2778,7 +3509,13 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
         g2.drawString(prompt, promptX, promptY);
     }
 
-    private void drawThirdRelicCutsceneOverlay(Graphics2D g2){
+    private void drawThirdRelicCutsceneOverlay(Graphics2D g2, StoryView story){
+        boolean waiting = story.thirdWaiting;
+        uiLayers.draw(g2, "cutsceneThird", UiLayerCache.inputs(waiting), fullScreen(),
+                pen -> paintThirdRelicCutscene(pen, waiting));
+    }
+
+    private void paintThirdRelicCutscene(Graphics2D g2, boolean waiting){
         int w = getWidth();
         int h = getHeight();
         g2.setColor(new Color(80,0,20,210));
@@ -2809,7 +3546,7 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
         g2.setColor(new Color(240,70,90,245));
         g2.drawString(warn, warnX, warnY);
 
-        String prompt = thirdRelicCutsceneAwaitingContinue ? "Click or press any key to brace for the blade." : "...";
+        String prompt = waiting ? "Click or press any key to brace for the blade." : "...";
         g2.setFont(new Font("Garamond", Font.BOLD, 20));
         FontMetrics promptMetrics = g2.getFontMetrics();
         int promptX = (w - promptMetrics.stringWidth(prompt))/2;
@@ -2818,16 +3555,16 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
         g2.drawString(prompt, promptX, promptY);
     }
 
-    private void drawNecroCutsceneOverlay(Graphics2D g2){
+    private void drawNecroCutsceneOverlay(Graphics2D g2, StoryView story){
         int w = getWidth();
         int h = getHeight();
-        long elapsed = System.currentTimeMillis() - necroCutsceneStartMs;
+        long elapsed = System.currentTimeMillis() - story.necroStartMs;
+        boolean waiting = story.necroWaiting;
         float flash = (float)(0.5 + 0.5*Math.sin(elapsed/60.0));
 
-        g2.setColor(new Color(120,0,0,230));
-        g2.fillRect(0,0,w,h);
-        g2.setColor(new Color(0,0,0,180));
-        g2.fillRect(0,0,w,h);
+        // backdrop and words hold still; only the border rings and the flash pulse
+        uiLayers.draw(g2, "cutsceneNecro", UiLayerCache.inputs(waiting), fullScreen(),
+                pen -> paintNecroCutscene(pen, waiting));
 
         for(int i=0;i<8;i++){
             int alpha = (int)(80 + 120*Math.sin(elapsed/90.0 + i));
@@ -2836,6 +3573,18 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
             g2.drawRect(pad, pad, w-pad*2, h-pad*2);
         }
 
+        g2.setColor(new Color(255, 0, 0, (int)(120*flash)));
+        g2.fillRect(0,0,w,h);
+    }
+
+    private void paintNecroCutscene(Graphics2D g2, boolean waiting){
+        int w = getWidth();
+        int h = getHeight();
+        g2.setColor(new Color(120,0,0,230));
+        g2.fillRect(0,0,w,h);
+        g2.setColor(new Color(0,0,0,180));
+        g2.fillRect(0,0,w,h);
+
         g2.setFont(new Font("Consolas", Font.BOLD, 38));
         String warning = "THE NECROMANCER HUNTS. FLEE.";
         FontMetrics fm = g2.getFontMetrics();
@@ -2851,30 +3600,30 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
         g2.drawString(sub, sx, wy + 44);
 
         g2.setFont(new Font("Garamond", Font.BOLD, 22));
-        String prompt = necroCutsceneAwaitingContinue ? "Click or press any key to face the doom." : "...";
+        String prompt = waiting ? "Click or press any key to face the doom." : "...";
         int px = (w - g2.getFontMetrics().stringWidth(prompt))/2;
         g2.setColor(new Color(255, 220, 220, 235));
         g2.drawString(prompt, px, h - 40);
-
-        g2.setColor(new Color(255, 0, 0, (int)(120*flash)));
-        g2.fillRect(0,0,w,h);
     }
 
     private int fogAlphaForTile(int worldX, int worldY){
         if(noFog){
             return 0;
         }
-        if(!isDiscovered(worldX, worldY)){
+        if(!shownFog.isRevealed(worldX, worldY)){
             return 235;
         }
 
-        double fogGap = Math.hypot(worldX - player.getTileX(), worldY - player.getTileY());
+        double fogGap = Math.hypot(worldX - fogMaskHeroX, worldY - fogMaskHeroY);
 
         if(fogGap <= clearRing){
             return 0;
         }
+        float glow = lights.at(worldX, worldY);
 
-        double fogSpan = Math.max(1e-3,(fogEdge-clearRing));
+        // bad weather pulls the fog in, but always leaves a little room past the clear ring
+        double sightEdge = fogEdge - (fogEdge - clearRing - 1.0) * shownSightLoss;
+        double fogSpan = Math.max(1e-3,(sightEdge-clearRing));
         double fogBlend = (fogGap-clearRing)/fogSpan;
         if(fogBlend > 1.0) fogBlend = 1.0;
         if(fogBlend < 0.0) fogBlend = 0.0;
@@ -2882,10 +3631,20 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
         double fogSquish = fogBlend*fogBlend*(3-2*fogBlend);
         int fogSoft = 18;
         int fogThick  = 170;
-        return (int)Math.round(fogSoft + (fogThick-fogSoft) * fogSquish);
+        // lights multiply the darkness down inside the same fog pass
+        return (int)Math.round((fogSoft + (fogThick-fogSoft) * fogSquish) * (1f - glow));
     }
 
     private double moodHaziness(int worldX,int worldY){
+        double creepJuice = corruptionProgress();
+        if(creepJuice <= 0.0){
+            return 0.0;
+        }
+        return corruptionField.strengthAt(worldX, worldY, creepJuice);
+    }
+
+    /** How far the corruption has crept, 0..1; 0 while it has not started or is disabled. */
+    private double corruptionProgress(){
         if(noCorruption){
             return 0.0;
         }
@@ -2893,17 +3652,7 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
             return 0.0;
         }
         long spookyClock = System.currentTimeMillis() - corruptionStartMs;
-        double creepJuice = Math.min(1.0, spookyClock / (double)corruptionSpanMs);
-
-        double topTilt = 1.0 - (worldY / Math.max(1.0, (world.getHeight()-1)));
-        double wiggleNoise = (Util.scrappyPick(worldX, worldY, 7, 100) - 50) / 520.0; // small, fixed per tile
-
-        double spookGate = clamp01(topTilt + wiggleNoise + 0.03);
-
-        double spill = 0.45;
-        double purplePunch = clamp01((creepJuice - spookGate) / spill);
-        double softenedPunch = purplePunch*purplePunch * (3 - 2*purplePunch);
-        return softenedPunch;
+        return Math.min(1.0, spookyClock / (double)corruptionSpanMs);
     }
 
     private void applyCorruptionDamage(){
@@ -2950,7 +3699,7 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
 
         lastMessage = "The corruption crackles—get out now!";
 
-        double tickSeconds = tickMs / 1000.0;
+        double tickSeconds = simClock.stepSeconds();
         double spicyFactor = Math.pow(clamp01(purpleHeat), 1.25);
         double hurtPerSecond = 8.0 + (spicyFactor * 32.0); // heavier damage at higher intensity
         corruptionDamageRemainder += hurtPerSecond * tickSeconds;
@@ -2976,42 +3725,5 @@ public class GamePanel extends JPanel implements KeyListener, MouseListener {
         }
         return moodHaziness(worldX, worldY) >= corruptionEntryThreshold;
     }
-
-    private static class EndingParticle {
-        double x, y, vx, vy;
-        float life;
-        float maxLife;
-        int size;
-        Color color;
-
-        EndingParticle(double x, double y, double vx, double vy, float maxLife, int size, Color color) {
-            this.x = x;
-            this.y = y;
-            this.vx = vx;
-            this.vy = vy;
-            this.life = maxLife;
-            this.maxLife = maxLife;
-            this.size = size;
-            this.color = color;
-        }
-
-        void update(float dt) {
-            x += vx * dt;
-            y += vy * dt;
-            vy += 60 * dt; // gravity
-            life -= dt;
-        }
-
-        void render(Graphics2D g, int screenX, int screenY) {
-            float alpha = Math.max(0, life / maxLife);
-            Color c = new Color(color.getRed(), color.getGreen(), color.getBlue(), (int)(color.getAlpha() * alpha));
-            g.setColor(c);
-            g.fillOval((int)x - size/2, (int)y - size/2, size, size);
-        }
-
-        boolean isAlive() {
-            return life > 0;
-        }
-    }
 }
 //uncle if u make it to the end, u a real one :)
\ No newline at end of file
@@ -0,0 +1,109 @@
+package relicscape;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * One font and colour pre-rasterized into a strip, one cell per character, so
+ * fast-changing counters like HP draw as a few blits with no String building.
+ * Characters outside the alphabet fall back to drawString.
+ */
+class GlyphAtlas {
+
+    private static final int PAD = 3;
+
+    private final Font font;
+    private final Color ink;
+    private final String alphabet;
+    private final char[] digitScratch = new char[11];
+
+    private BufferedImage strip;
+    private int[] cellX;
+    private int[] advance;
+    private int cellTall;
+    private int ascent;
+
+    GlyphAtlas(Font font, Color ink, String alphabet) {
+        this.font = font;
+        this.ink = ink;
+        this.alphabet = alphabet;
+    }
+
+    /** Draw text with its baseline at y; returns the x just past it. */
+    int draw(Graphics2D pen, CharSequence text, int x, int y) {
+        bake(pen);
+        for (int i = 0; i < text.length(); i++) {
+            x = drawChar(pen, text.charAt(i), x, y);
+        }
+        return x;
+    }
+
+    /** Draw a whole number without turning it into a String first. */
+    int drawNumber(Graphics2D pen, int value, int x, int y) {
+        bake(pen);
+        int used = 0;
+        long left = Math.abs((long) value);
+        do {
+            digitScratch[digitScratch.length - 1 - used++] = (char) ('0' + left % 10);
+            left /= 10;
+        } while (left > 0);
+        if (value < 0) digitScratch[digitScratch.length - 1 - used++] = '-';
+        for (int i = digitScratch.length - used; i < digitScratch.length; i++) {
+            x = drawChar(pen, digitScratch[i], x, y);
+        }
+        return x;
+    }
+
+    private int drawChar(Graphics2D pen, char c, int x, int y) {
+        int slot = alphabet.indexOf(c);
+        if (slot < 0) {
+            pen.setFont(font);
+            pen.setColor(ink);
+            pen.drawString(String.valueOf(c), x, y);
+            return x + pen.getFontMetrics().charWidth(c);
+        }
+        int cellWide = advance[slot] + PAD * 2;
+        int dx = x - PAD;
+        int dy = y - ascent - PAD;
+        pen.drawImage(strip, dx, dy, dx + cellWide, dy + cellTall,
+                cellX[slot], 0, cellX[slot] + cellWide, cellTall, null);
+        return x + advance[slot];
+    }
+
+    // Rasterize on first use, with the target's device and text hints, so glyphs match drawString.
+    private void bake(Graphics2D pen) {
+        if (strip != null) return;
+        FontMetrics sizer = pen.getFontMetrics(font);
+        ascent = sizer.getMaxAscent();
+        cellTall = ascent + sizer.getMaxDescent() + PAD * 2;
+        cellX = new int[alphabet.length()];
+        advance = new int[alphabet.length()];
+        int stripWide = 0;
+        for (int i = 0; i < alphabet.length(); i++) {
+            cellX[i] = stripWide;
+            advance[i] = sizer.charWidth(alphabet.charAt(i));
+            stripWide += advance[i] + PAD * 2;
+        }
+        GraphicsConfiguration screenCfg = pen.getDeviceConfiguration();
+        strip = screenCfg != null
+                ? screenCfg.createCompatibleImage(Math.max(1, stripWide), cellTall, Transparency.TRANSLUCENT)
+                : new BufferedImage(Math.max(1, stripWide), cellTall, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D glyphPen = strip.createGraphics();
+        Object textSmoothing = pen.getRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING);
+        if (textSmoothing != null) {
+            glyphPen.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, textSmoothing);
+        }
+        glyphPen.setFont(font);
+        glyphPen.setColor(ink);
+        for (int i = 0; i < alphabet.length(); i++) {
+            glyphPen.drawString(String.valueOf(alphabet.charAt(i)), cellX[i] + PAD, PAD + ascent);
+        }
+        glyphPen.dispose();
+    }
+}
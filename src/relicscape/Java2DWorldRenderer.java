@@ -0,0 +1,110 @@
+package relicscape;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * WorldRenderer on plain Graphics2D calls. A canvas the same size as its place is drawn
+ * straight onto the screen pen; a smaller one (native-resolution mode) goes through an
+ * offscreen buffer and a single nearest-neighbour upscale.
+ */
+class Java2DWorldRenderer implements WorldRenderer {
+
+    private final Map<Integer, Color> inks = new HashMap<>();
+    private BufferedImage backbuffer;
+    private Graphics2D screenPen;
+    private Graphics2D pen;
+    private Rectangle place;
+    private Rectangle clip;
+    private int canvasWide;
+    private int canvasTall;
+    private boolean direct;
+
+    @Override
+    public void begin(Graphics2D screenPen, int canvasWide, int canvasTall, Rectangle place, Rectangle clip) {
+        this.screenPen = screenPen;
+        this.canvasWide = canvasWide;
+        this.canvasTall = canvasTall;
+        this.place = place;
+        this.clip = clip;
+        direct = place.width == canvasWide && place.height == canvasTall;
+        if (direct) {
+            pen = (Graphics2D) screenPen.create();
+            pen.clip(clip);
+            pen.translate(place.x, place.y);
+            return;
+        }
+        if (backbuffer == null || backbuffer.getWidth() < canvasWide || backbuffer.getHeight() < canvasTall) {
+            GraphicsConfiguration screenCfg = screenPen.getDeviceConfiguration();
+            backbuffer = screenCfg != null
+                    ? screenCfg.createCompatibleImage(canvasWide, canvasTall, Transparency.OPAQUE)
+                    : new BufferedImage(canvasWide, canvasTall, BufferedImage.TYPE_INT_RGB);
+        }
+        pen = backbuffer.createGraphics();
+        pen.setColor(Color.BLACK);
+        pen.fillRect(0, 0, canvasWide, canvasTall);
+        pen.clipRect(0, 0, canvasWide, canvasTall);
+    }
+
+    @Override
+    public GraphicsConfiguration deviceConfiguration() {
+        return pen.getDeviceConfiguration();
+    }
+
+    @Override
+    public void copy(BufferedImage pic, int x, int y) {
+        pen.drawImage(pic, x, y, null);
+    }
+
+    @Override
+    public void blend(BufferedImage pic, int x, int y) {
+        pen.drawImage(pic, x, y, null);
+    }
+
+    @Override
+    public void blendScaled(AtlasRegion art, int x, int y, int wide, int tall) {
+        art.draw(pen, x, y, wide, tall);
+    }
+
+    @Override
+    public void fill(int x, int y, int wide, int tall, int argb) {
+        pen.setColor(ink(argb));
+        pen.fillRect(x, y, wide, tall);
+    }
+
+    @Override
+    public void fillOval(int x, int y, int wide, int tall, int argb) {
+        pen.setColor(ink(argb));
+        pen.fillOval(x, y, wide, tall);
+    }
+
+    @Override
+    public void fog(FogMask mask, int left, int top, int windowWide, int windowTall, int originX, int originY, int tileSize,
+                    boolean smooth) {
+        mask.draw(pen, left, top, windowWide, windowTall, originX, originY, tileSize, smooth);
+    }
+
+    @Override
+    public void finish() {
+        pen.dispose();
+        pen = null;
+        if (direct) return;
+        Graphics2D blitPen = (Graphics2D) screenPen.create();
+        blitPen.clip(clip);
+        blitPen.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        blitPen.drawImage(backbuffer, place.x, place.y, place.x + place.width, place.y + place.height,
+                0, 0, canvasWide, canvasTall, null);
+        blitPen.dispose();
+    }
+
+    private Color ink(int argb) {
+        return inks.computeIfAbsent(argb, packed -> new Color(packed, true));
+    }
+}
@@ -0,0 +1,147 @@
+package relicscape;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+/**
+ * How brightly the world's glowing things light each tile of a window around the view.
+ * Radial lights are splatted into a float per tile, then softened with a separable
+ * [1 2 1] blur, inline: the window is a few hundred tiles, too small to be worth handing
+ * out. The window, not the map, sets the size, and lights whose reach misses it are
+ * skipped, so cost follows the viewport. Nothing is drawn here: the fog multiplies its
+ * darkness by what's left unlit, which keeps lighting inside the one fog composite.
+ * Painting thread only.
+ */
+class LightMap {
+
+    /** Steps a tile's light moves in, so a gliding light only re-fogs the tiles it has visibly changed. */
+    private static final int GLOW_STEPS = 32;
+
+    private int left;
+    private int top;
+    private int wide;
+    private int tall;
+    private float[] glow = new float[0];
+    private float[] spread = new float[0];
+    /** Last finished map, to tell whether the fog needs rebuilding. */
+    private float[] shown = new float[0];
+    private int shownLeft;
+    private int shownTop;
+    private int shownWide = -1;
+    private boolean lit;
+
+    /** Starts an unlit map over the tile window (left, top, wide, tall). */
+    void begin(int left, int top, int wide, int tall) {
+        this.left = left;
+        this.top = top;
+        this.wide = Math.max(0, wide);
+        this.tall = Math.max(0, tall);
+        int cells = this.wide * this.tall;
+        if (glow.length < cells) {
+            glow = new float[cells];
+            spread = new float[cells];
+        }
+        Arrays.fill(glow, 0, cells, 0f);
+        lit = false;
+    }
+
+    /**
+     * A light centred at world tile coordinates (x, y), at full strength in the middle and
+     * fading to nothing radius tiles out.
+     */
+    void add(float x, float y, float radius, float strength) {
+        if (radius <= 0f || strength <= 0f) return;
+        int fromX = Math.max(left, (int) Math.floor(x - radius));
+        int toX = Math.min(left + wide - 1, (int) Math.ceil(x + radius));
+        int fromY = Math.max(top, (int) Math.floor(y - radius));
+        int toY = Math.min(top + tall - 1, (int) Math.ceil(y + radius));
+        if (fromX > toX || fromY > toY) return;
+        float reach = 1f / radius;
+        for (int ty = fromY; ty <= toY; ty++) {
+            float dy = ty + 0.5f - y;
+            int row = (ty - top) * wide - left;
+            for (int tx = fromX; tx <= toX; tx++) {
+                float dx = tx + 0.5f - x;
+                float falloff = 1f - (float) Math.sqrt(dx * dx + dy * dy) * reach;
+                if (falloff > 0f) {
+                    glow[row + tx] += strength * falloff * falloff;
+                    lit = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Softens the map and steps it to GLOW_STEPS. Returns the world tiles whose light
+     * differs from the last map finished, or null if none do.
+     */
+    Rectangle finish() {
+        int cells = wide * tall;
+        if (lit) {
+            blurAcross();
+            blurDown();
+            for (int i = 0; i < cells; i++) {
+                glow[i] = Math.round(Math.min(1f, glow[i]) * GLOW_STEPS) / (float) GLOW_STEPS;
+            }
+        }
+        Rectangle changed;
+        if (shownWide != wide || shownLeft != left || shownTop != top || shown.length != cells) {
+            changed = new Rectangle(left, top, wide, tall);
+        } else {
+            changed = changedCells();
+            if (changed == null) return null;
+        }
+        shown = Arrays.copyOf(glow, cells);
+        shownLeft = left;
+        shownTop = top;
+        shownWide = wide;
+        return changed;
+    }
+
+    /** Light on tile (x, y), 0..1; 0 outside the window. */
+    float at(int x, int y) {
+        if (!lit || x < left || y < top || x >= left + wide || y >= top + tall) return 0f;
+        return Math.min(1f, glow[(y - top) * wide + (x - left)]);
+    }
+
+    // Bounding box, in world tiles, of the cells that differ from shown; same window assumed.
+    private Rectangle changedCells() {
+        int minX = wide, minY = tall, maxX = -1, maxY = -1;
+        for (int y = 0; y < tall; y++) {
+            int row = y * wide;
+            for (int x = 0; x < wide; x++) {
+                if (glow[row + x] == shown[row + x]) continue;
+                if (x < minX) minX = x;
+                if (x > maxX) maxX = x;
+                if (y < minY) minY = y;
+                maxY = y;
+            }
+        }
+        if (maxX < 0) return null;
+        return new Rectangle(left + minX, top + minY, maxX - minX + 1, maxY - minY + 1);
+    }
+
+    // glow -> spread, along rows
+    private void blurAcross() {
+        for (int y = 0; y < tall; y++) {
+            int row = y * wide;
+            for (int x = 0; x < wide; x++) {
+                float before = glow[row + Math.max(0, x - 1)];
+                float after = glow[row + Math.min(wide - 1, x + 1)];
+                spread[row + x] = (before + 2f * glow[row + x] + after) * 0.25f;
+            }
+        }
+    }
+
+    // spread -> glow, down columns
+    private void blurDown() {
+        for (int y = 0; y < tall; y++) {
+            int row = y * wide;
+            int above = Math.max(0, y - 1) * wide;
+            int below = Math.min(tall - 1, y + 1) * wide;
+            for (int x = 0; x < wide; x++) {
+                glow[row + x] = (spread[above + x] + 2f * spread[row + x] + spread[below + x]) * 0.25f;
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package relicscape;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * A fixed-size pool of round particles kept as parallel arrays, so spawning, stepping and
+ * drawing never allocate. Each particle has a palette colour, a size and a life that fades
+ * it out; dead ones are swapped out from the end. Drawing blits prebuilt oval sprites,
+ * grouped so every particle sharing a sprite goes out back to back. The sim thread spawns
+ * and steps, the painter draws; both hold the field's lock for their pass.
+ */
+class ParticleField {
+
+    static final int MAX_INKS = 16;
+    static final int MAX_SIZE = 16;
+    /** Fade levels baked per colour and size. */
+    static final int FADE_STEPS = 16;
+    private static final int SPRITE_KINDS = MAX_INKS * MAX_SIZE * FADE_STEPS;
+
+    private final int capacity;
+    private final float gravity;
+    private final float[] x;
+    private final float[] y;
+    private final float[] vx;
+    private final float[] vy;
+    private final float[] life;
+    private final float[] maxLife;
+    private final byte[] size;
+    private final byte[] ink;
+    private int live;
+
+    private final int[] palette = new int[MAX_INKS];
+    private int inkCount;
+    private final BufferedImage[] sprites = new BufferedImage[SPRITE_KINDS];
+    private final int[] spriteOf;
+    private final int[] drawOrder;
+    private final int[] kindCounts = new int[SPRITE_KINDS + 1];
+
+    /** gravity pulls vy down in pixels per second squared. */
+    ParticleField(int capacity, float gravity) {
+        this.capacity = Math.max(1, capacity);
+        this.gravity = gravity;
+        x = new float[this.capacity];
+        y = new float[this.capacity];
+        vx = new float[this.capacity];
+        vy = new float[this.capacity];
+        life = new float[this.capacity];
+        maxLife = new float[this.capacity];
+        size = new byte[this.capacity];
+        ink = new byte[this.capacity];
+        spriteOf = new int[this.capacity];
+        drawOrder = new int[this.capacity];
+    }
+
+    /** Registers a colour (alpha included) and returns the index spawn takes; set up once, not per spawn. */
+    synchronized int ink(int argb) {
+        for (int i = 0; i < inkCount; i++) {
+            if (palette[i] == argb) return i;
+        }
+        if (inkCount == MAX_INKS) throw new IllegalStateException("particle palette is full");
+        palette[inkCount] = argb;
+        return inkCount++;
+    }
+
+    /** Adds one particle; returns false, dropping it, when the pool is full. */
+    synchronized boolean spawn(float atX, float atY, float speedX, float speedY, float lifeSeconds, int diameter,
+                               int inkIndex) {
+        if (live == capacity || lifeSeconds <= 0f) return false;
+        int i = live++;
+        x[i] = atX;
+        y[i] = atY;
+        vx[i] = speedX;
+        vy[i] = speedY;
+        life[i] = lifeSeconds;
+        maxLife[i] = lifeSeconds;
+        size[i] = (byte) Math.max(1, Math.min(MAX_SIZE, diameter));
+        ink[i] = (byte) Math.max(0, Math.min(inkCount - 1, inkIndex));
+        return true;
+    }
+
+    synchronized void step(float dt) {
+        int i = 0;
+        while (i < live) {
+            life[i] -= dt;
+            if (life[i] <= 0f) {
+                moveInto(i, --live);
+                continue; // the one moved in still needs stepping
+            }
+            x[i] += vx[i] * dt;
+            y[i] += vy[i] * dt;
+            vy[i] += gravity * dt;
+            i++;
+        }
+    }
+
+    synchronized int count() {
+        return live;
+    }
+
+    synchronized boolean isEmpty() {
+        return live == 0;
+    }
+
+    synchronized void clear() {
+        live = 0;
+    }
+
+    /** Draws every live particle centred on its position, offset by (originX, originY). */
+    synchronized void draw(Graphics2D pen, int originX, int originY) {
+        if (live == 0) return;
+        Arrays.fill(kindCounts, 0);
+        for (int i = 0; i < live; i++) {
+            float fade = Math.max(0f, life[i] / maxLife[i]);
+            int fadeStep = Math.min(FADE_STEPS - 1, (int) (fade * FADE_STEPS));
+            int kind = ((ink[i] * MAX_SIZE) + (size[i] - 1)) * FADE_STEPS + fadeStep;
+            spriteOf[i] = kind;
+            kindCounts[kind + 1]++;
+        }
+        for (int k = 0; k < SPRITE_KINDS; k++) {
+            kindCounts[k + 1] += kindCounts[k];
+        }
+        for (int i = 0; i < live; i++) {
+            drawOrder[kindCounts[spriteOf[i]]++] = i;
+        }
+        for (int n = 0; n < live; n++) {
+            int i = drawOrder[n];
+            int diameter = size[i];
+            BufferedImage sprite = spriteFor(spriteOf[i], diameter);
+            pen.drawImage(sprite, originX + (int) x[i] - diameter / 2, originY + (int) y[i] - diameter / 2, null);
+        }
+    }
+
+    private BufferedImage spriteFor(int kind, int diameter) {
+        BufferedImage sprite = sprites[kind];
+        if (sprite != null) return sprite;
+        int fadeStep = kind % FADE_STEPS;
+        int argb = palette[kind / (MAX_SIZE * FADE_STEPS)];
+        // the top of each fade bucket, so a fresh particle shows its full colour
+        float fade = (fadeStep + 1) / (float) FADE_STEPS;
+        int alpha = (int) ((argb >>> 24) * fade);
+        sprite = new BufferedImage(diameter, diameter, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D spritePen = sprite.createGraphics();
+        spritePen.setColor(new Color(argb >> 16 & 0xFF, argb >> 8 & 0xFF, argb & 0xFF, alpha));
+        spritePen.fillOval(0, 0, diameter, diameter);
+        spritePen.dispose();
+        sprites[kind] = sprite;
+        return sprite;
+    }
+
+    private void moveInto(int to, int from) {
+        x[to] = x[from];
+        y[to] = y[from];
+        vx[to] = vx[from];
+        vy[to] = vy[from];
+        life[to] = life[from];
+        maxLife[to] = maxLife[from];
+        size[to] = size[from];
+        ink[to] = ink[from];
+    }
+}
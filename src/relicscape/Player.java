@@ -3,19 +3,25 @@ package relicscape;
 public class Player {
     private float positionX;
     private float positionY;
-    private float targetPositionX;
-    private float targetPositionY;
-    private boolean isMoving = false;
+    // Where the sprite is drawn: glides toward the tile position a little every sim step.
+    private float drawnX;
+    private float drawnY;
+    private float lastDrawnX;
+    private float lastDrawnY;
     private int currentHearts;
     private int maxHearts;
     boolean pendingQuit = false;
     private boolean invulnerable = false;
 
+    // Farther than this and a sprite just jumps (respawns, long knockbacks); monsters glide by it too.
+    static final float SNAP_TILES = 2.5f;
+
     public Player(float startX, float startY, int startingHearts) {
         this.positionX = startX;
         this.positionY = startY;
         this.currentHearts = startingHearts;
         this.maxHearts = startingHearts;
+        snapDrawn();
     }
 
     public void setInvulnerable(boolean invulnerableFlag) { this.invulnerable = invulnerableFlag; }
@@ -25,47 +31,61 @@ public class Player {
     public float getExactX() { return positionX; }
     public float getExactY() { return positionY; }
 
+    /** Teleport: the sprite lands there too. */
     public void setPosition(float x, float y) {
         this.positionX = x;
         this.positionY = y;
-        targetPositionX = x;
-        targetPositionY = y;
-        isMoving = false;
+        snapDrawn();
     }
 
     public void moveByDelta(float deltaX, float deltaY) {
         this.positionX += deltaX;
         this.positionY += deltaY;
-        targetPositionX += deltaX;
-        targetPositionY += deltaY;
+        drawnX += deltaX;
+        drawnY += deltaY;
+        lastDrawnX += deltaX;
+        lastDrawnY += deltaY;
     }
 
+    /** Step: the player is there right away for the rules, the sprite glides over in {@link #update}. */
     public void setTargetPosition(float targetX, float targetY) {
-        targetPositionX = targetX;
-        targetPositionY = targetY;
-        isMoving = true;
+        this.positionX = targetX;
+        this.positionY = targetY;
     }
 
     public boolean isMoving() {
-        return isMoving;
+        return drawnX != getTileX() || drawnY != getTileY();
     }
 
+    /** One sim step of the glide, moving the drawn position up to speed tiles. */
     public void update(float speed) {
-        if (isMoving) {
-            float deltaX = targetPositionX - positionX;
-            float deltaY = targetPositionY - positionY;
-            float distance = (float) Math.sqrt(deltaX * deltaX + deltaY * deltaY);
-            if (distance < speed) {
-                positionX = targetPositionX;
-                positionY = targetPositionY;
-                isMoving = false;
-            } else {
-                positionX += (deltaX / distance) * speed;
-                positionY += (deltaY / distance) * speed;
+        lastDrawnX = drawnX;
+        lastDrawnY = drawnY;
+        float deltaX = getTileX() - drawnX;
+        float deltaY = getTileY() - drawnY;
+        float distance = (float) Math.sqrt(deltaX * deltaX + deltaY * deltaY);
+        if (distance <= speed || distance > SNAP_TILES) {
+            drawnX = getTileX();
+            drawnY = getTileY();
+            if (distance > SNAP_TILES) {
+                lastDrawnX = drawnX;
+                lastDrawnY = drawnY;
             }
+        } else {
+            drawnX += (deltaX / distance) * speed;
+            drawnY += (deltaY / distance) * speed;
         }
     }
 
+    /** Drawn tile position, blended between the last two sim steps (alpha 0..1). */
+    public float getDrawnX(float alpha) { return lastDrawnX + (drawnX - lastDrawnX) * alpha; }
+    public float getDrawnY(float alpha) { return lastDrawnY + (drawnY - lastDrawnY) * alpha; }
+
+    private void snapDrawn() {
+        drawnX = lastDrawnX = getTileX();
+        drawnY = lastDrawnY = getTileY();
+    }
+
     public int getHearts() { return currentHearts; }
     public int getMaxHearts() { return maxHearts; }
 
@@ -0,0 +1,388 @@
+package relicscape;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * WorldRenderer that never asks Java2D to draw: every layer is copied and blended as
+ * int pixels straight into a TYPE_INT_RGB framebuffer, which goes to the screen in one
+ * drawImage at the end. Meant for headless boxes and slow Java2D pipelines; run with
+ * -Drelicscape.renderer=raster. Calls are recorded and played back per horizontal band,
+ * the bands spread over -Drelicscape.rasterBands worker threads (default: one per core).
+ */
+class RasterWorldRenderer implements WorldRenderer {
+
+    private static final int OPAQUE = 0;
+    private static final int STRAIGHT = 1;
+    private static final int PREMULTIPLIED = 2;
+    private static final int BAND_COUNT = Math.max(1,
+            Integer.getInteger("relicscape.rasterBands", Runtime.getRuntime().availableProcessors()));
+    private static final int MIN_BAND_ROWS = 32;
+    /** One pool for every renderer, so a restart's fresh panel doesn't start threads of its own. */
+    private static final ExecutorService BAND_WORKERS = Executors.newFixedThreadPool(Math.max(1, BAND_COUNT - 1), work -> {
+        Thread worker = new Thread(work, "relicscape-raster");
+        worker.setDaemon(true);
+        return worker;
+    });
+
+    /** One recorded drawing call, replayed against the rows [top, bottom) of the frame. */
+    private interface Stroke {
+        void paint(int top, int bottom);
+    }
+
+    /** Where a source picture's pixels live and how to read them. */
+    private static final class Pixels {
+        final int[] data;
+        final int offset;
+        final int stride;
+        final int kind;
+
+        Pixels(int[] data, int offset, int stride, int kind) {
+            this.data = data;
+            this.offset = offset;
+            this.stride = stride;
+            this.kind = kind;
+        }
+    }
+
+    private final Map<BufferedImage, Pixels> sources = new WeakHashMap<>();
+    private BufferedImage frame;
+    private GraphicsConfiguration frameCfg;
+    private int[] frameInk;
+    private int frameStride;
+    private int canvasWide;
+    private int canvasTall;
+    private Graphics2D screenPen;
+    private Rectangle place;
+    private Rectangle clip;
+    private final List<Stroke> strokes = new ArrayList<>();
+
+    @Override
+    public void begin(Graphics2D screenPen, int canvasWide, int canvasTall, Rectangle place, Rectangle clip) {
+        this.screenPen = screenPen;
+        this.canvasWide = Math.max(1, canvasWide);
+        this.canvasTall = Math.max(1, canvasTall);
+        this.place = place;
+        this.clip = clip;
+        if (frame == null || frame.getWidth() < this.canvasWide || frame.getHeight() < this.canvasTall) {
+            frame = new BufferedImage(this.canvasWide, this.canvasTall, BufferedImage.TYPE_INT_RGB);
+            frameInk = ((DataBufferInt) frame.getRaster().getDataBuffer()).getData();
+            frameStride = frame.getWidth();
+            Graphics2D probe = frame.createGraphics();
+            frameCfg = probe.getDeviceConfiguration();
+            probe.dispose();
+        }
+        strokes.clear();
+        int clearWide = this.canvasWide;
+        strokes.add((top, bottom) -> {
+            for (int y = top; y < bottom; y++) {
+                int row = y * frameStride;
+                Arrays.fill(frameInk, row, row + clearWide, 0);
+            }
+        });
+    }
+
+    @Override
+    public GraphicsConfiguration deviceConfiguration() {
+        // Caches then bake int-packed images, which copy without conversion.
+        return frameCfg;
+    }
+
+    @Override
+    public void copy(BufferedImage pic, int x, int y) {
+        Pixels src = pixelsOf(pic);
+        if (src.kind != OPAQUE) {
+            blend(pic, x, y);
+            return;
+        }
+        int x0 = Math.max(0, x);
+        int x1 = Math.min(canvasWide, x + pic.getWidth());
+        int y0 = Math.max(0, y);
+        int y1 = Math.min(canvasTall, y + pic.getHeight());
+        if (x1 <= x0 || y1 <= y0) return;
+        int span = x1 - x0;
+        strokes.add((top, bottom) -> {
+            for (int py = Math.max(y0, top); py < Math.min(y1, bottom); py++) {
+                System.arraycopy(src.data, src.offset + (py - y) * src.stride + (x0 - x),
+                        frameInk, py * frameStride + x0, span);
+            }
+        });
+    }
+
+    @Override
+    public void blend(BufferedImage pic, int x, int y) {
+        Pixels src = pixelsOf(pic);
+        int x0 = Math.max(0, x);
+        int x1 = Math.min(canvasWide, x + pic.getWidth());
+        int y0 = Math.max(0, y);
+        int y1 = Math.min(canvasTall, y + pic.getHeight());
+        if (x1 <= x0 || y1 <= y0) return;
+        strokes.add((top, bottom) -> {
+            for (int py = Math.max(y0, top); py < Math.min(y1, bottom); py++) {
+                int from = src.offset + (py - y) * src.stride - x;
+                int to = py * frameStride;
+                for (int px = x0; px < x1; px++) {
+                    frameInk[to + px] = over(src.data[from + px], frameInk[to + px], src.kind);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void blendScaled(AtlasRegion art, int x, int y, int wide, int tall) {
+        boolean mirrored = wide < 0;
+        int left = mirrored ? x + wide : x;
+        int across = Math.abs(wide);
+        if (across == 0 || tall <= 0 || art.wide <= 0 || art.tall <= 0) return;
+        Pixels src = pixelsOf(art.page);
+        int x0 = Math.max(0, left);
+        int x1 = Math.min(canvasWide, left + across);
+        int y0 = Math.max(0, y);
+        int y1 = Math.min(canvasTall, y + tall);
+        if (x1 <= x0 || y1 <= y0) return;
+        int[] sourceCols = new int[x1 - x0];
+        for (int px = x0; px < x1; px++) {
+            // sample at the destination pixel's centre, like Java2D's nearest-neighbour scaling
+            int col = (int) (((long) (px - left) * 2 + 1) * art.wide / (2L * across));
+            sourceCols[px - x0] = art.x + (mirrored ? art.wide - 1 - col : col);
+        }
+        strokes.add((top, bottom) -> {
+            for (int py = Math.max(y0, top); py < Math.min(y1, bottom); py++) {
+                int row = art.y + (int) (((long) (py - y) * 2 + 1) * art.tall / (2L * tall));
+                int from = src.offset + row * src.stride;
+                int to = py * frameStride;
+                for (int px = x0; px < x1; px++) {
+                    frameInk[to + px] = over(src.data[from + sourceCols[px - x0]], frameInk[to + px], src.kind);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void fill(int x, int y, int wide, int tall, int argb) {
+        int x0 = Math.max(0, x);
+        int x1 = Math.min(canvasWide, x + wide);
+        int y0 = Math.max(0, y);
+        int y1 = Math.min(canvasTall, y + tall);
+        if (x1 <= x0 || y1 <= y0 || (argb >>> 24) == 0) return;
+        strokes.add((top, bottom) -> {
+            for (int py = Math.max(y0, top); py < Math.min(y1, bottom); py++) {
+                tintSpan(py * frameStride, x0, x1, argb);
+            }
+        });
+    }
+
+    @Override
+    public void fillOval(int x, int y, int wide, int tall, int argb) {
+        if (wide <= 0 || tall <= 0 || (argb >>> 24) == 0) return;
+        double radiusX = wide / 2.0;
+        double radiusY = tall / 2.0;
+        double middleX = x + radiusX;
+        double middleY = y + radiusY;
+        int y0 = Math.max(0, y);
+        int y1 = Math.min(canvasTall, y + tall);
+        int canvasRight = canvasWide;
+        strokes.add((top, bottom) -> {
+            for (int py = Math.max(y0, top); py < Math.min(y1, bottom); py++) {
+                double dy = (py + 0.5 - middleY) / radiusY;
+                if (dy * dy >= 1.0) continue;
+                double half = radiusX * Math.sqrt(1.0 - dy * dy);
+                // pixels whose centres fall inside, matching the non-antialiased fillOval
+                int from = Math.max(0, (int) Math.ceil(middleX - half - 0.5));
+                int to = Math.min(canvasRight, (int) Math.floor(middleX + half - 0.5) + 1);
+                tintSpan(py * frameStride, from, to, argb);
+            }
+        });
+    }
+
+    @Override
+    public void fog(FogMask mask, int left, int top, int windowWide, int windowTall, int originX, int originY, int tileSize,
+                    boolean smooth) {
+        int tx0 = Math.max(0, left - 1);
+        int ty0 = Math.max(0, top - 1);
+        int tx1 = Math.min(mask.wide(), left + windowWide + 1);
+        int ty1 = Math.min(mask.tall(), top + windowTall + 1);
+        if (tx1 <= tx0 || ty1 <= ty0 || tileSize <= 0) return;
+        int x0 = Math.max(0, originX + tx0 * tileSize);
+        int x1 = Math.min(canvasWide, originX + tx1 * tileSize);
+        int y0 = Math.max(0, originY + ty0 * tileSize);
+        int y1 = Math.min(canvasTall, originY + ty1 * tileSize);
+        if (x1 <= x0 || y1 <= y0) return;
+
+        int[] fogCols = new int[x1 - x0];
+        int[] fogColFrac = new int[x1 - x0];
+        // without smooth, every pixel takes its own tile's shade (frac stays 0)
+        double centre = smooth ? 0.5 : 0.0;
+        for (int px = x0; px < x1; px++) {
+            // bilinear over tile centres, clamped to the sampled window like a stretched drawImage
+            double u = (px - originX + 0.5) / tileSize - centre;
+            int tile = (int) Math.floor(u);
+            int frac = smooth ? (int) Math.round((u - tile) * 256) : 0;
+            if (tile < tx0) { tile = tx0; frac = 0; }
+            if (tile >= tx1 - 1) { tile = tx1 - 1; frac = 0; }
+            fogCols[px - x0] = tile;
+            fogColFrac[px - x0] = frac;
+        }
+        strokes.add((bandTop, bandBottom) -> {
+            for (int py = Math.max(y0, bandTop); py < Math.min(y1, bandBottom); py++) {
+                double v = (py - originY + 0.5) / tileSize - centre;
+                int tileRow = (int) Math.floor(v);
+                int fracY = smooth ? (int) Math.round((v - tileRow) * 256) : 0;
+                if (tileRow < ty0) { tileRow = ty0; fracY = 0; }
+                if (tileRow >= ty1 - 1) { tileRow = ty1 - 1; fracY = 0; }
+                int nextRow = Math.min(ty1 - 1, tileRow + 1);
+                int to = py * frameStride;
+                for (int px = x0; px < x1; px++) {
+                    int tile = fogCols[px - x0];
+                    int next = Math.min(tx1 - 1, tile + 1);
+                    int fracX = fogColFrac[px - x0];
+                    int upper = mask.alphaAt(tile, tileRow) * (256 - fracX) + mask.alphaAt(next, tileRow) * fracX;
+                    int lower = mask.alphaAt(tile, nextRow) * (256 - fracX) + mask.alphaAt(next, nextRow) * fracX;
+                    int alpha = (upper * (256 - fracY) + lower * fracY + (1 << 15)) >> 16;
+                    if (alpha <= 0) continue;
+                    if (alpha >= 255) {
+                        frameInk[to + px] = 0;
+                        continue;
+                    }
+                    int d = frameInk[to + px];
+                    int keep = 255 - alpha;
+                    frameInk[to + px] = div255(((d >> 16) & 0xFF) * keep) << 16
+                            | div255(((d >> 8) & 0xFF) * keep) << 8
+                            | div255((d & 0xFF) * keep);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void finish() {
+        paintBands();
+        Graphics2D blitPen = (Graphics2D) screenPen.create();
+        blitPen.clip(clip);
+        blitPen.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        blitPen.drawImage(frame, place.x, place.y, place.x + place.width, place.y + place.height,
+                0, 0, canvasWide, canvasTall, null);
+        blitPen.dispose();
+    }
+
+    // Every stroke only touches rows inside the band it is given, so bands never share a pixel
+    // and each one sees the strokes in the order they were made: same picture as one thread.
+    private void paintBands() {
+        int bands = Math.max(1, Math.min(BAND_COUNT, canvasTall / MIN_BAND_ROWS));
+        if (bands == 1) {
+            paintBand(0, canvasTall);
+        } else {
+            int bandTall = (canvasTall + bands - 1) / bands;
+            Future<?>[] running = new Future<?>[bands - 1];
+            for (int b = 1; b < bands; b++) {
+                int top = b * bandTall;
+                int bottom = Math.min(canvasTall, top + bandTall);
+                running[b - 1] = BAND_WORKERS.submit(() -> paintBand(top, bottom));
+            }
+            paintBand(0, Math.min(canvasTall, bandTall));
+            for (Future<?> band : running) {
+                try {
+                    band.get();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException ex) {
+                    throw new IllegalStateException("Raster band failed", ex.getCause());
+                }
+            }
+        }
+        strokes.clear();
+    }
+
+    private void paintBand(int top, int bottom) {
+        for (Stroke stroke : strokes) {
+            stroke.paint(top, bottom);
+        }
+    }
+
+    // Constant-colour source-over across one row.
+    private void tintSpan(int row, int from, int to, int argb) {
+        int alpha = argb >>> 24;
+        if (alpha == 0 || to <= from) return;
+        if (alpha == 255) {
+            Arrays.fill(frameInk, row + from, row + to, argb & 0xFFFFFF);
+            return;
+        }
+        int keep = 255 - alpha;
+        int red = ((argb >> 16) & 0xFF) * alpha;
+        int green = ((argb >> 8) & 0xFF) * alpha;
+        int blue = (argb & 0xFF) * alpha;
+        for (int i = row + from; i < row + to; i++) {
+            int d = frameInk[i];
+            frameInk[i] = div255(red + ((d >> 16) & 0xFF) * keep) << 16
+                    | div255(green + ((d >> 8) & 0xFF) * keep) << 8
+                    | div255(blue + (d & 0xFF) * keep);
+        }
+    }
+
+    private static int over(int s, int d, int kind) {
+        if (kind == OPAQUE) return s & 0xFFFFFF;
+        int alpha = s >>> 24;
+        if (alpha == 0) return d;
+        if (alpha == 255) return s & 0xFFFFFF;
+        int keep = 255 - alpha;
+        if (kind == PREMULTIPLIED) {
+            return (((s >> 16) & 0xFF) + div255(((d >> 16) & 0xFF) * keep)) << 16
+                    | (((s >> 8) & 0xFF) + div255(((d >> 8) & 0xFF) * keep)) << 8
+                    | ((s & 0xFF) + div255((d & 0xFF) * keep));
+        }
+        return div255(((s >> 16) & 0xFF) * alpha + ((d >> 16) & 0xFF) * keep) << 16
+                | div255(((s >> 8) & 0xFF) * alpha + ((d >> 8) & 0xFF) * keep) << 8
+                | div255((s & 0xFF) * alpha + (d & 0xFF) * keep);
+    }
+
+    private static int div255(int v) {
+        v += 128;
+        return (v + (v >> 8)) >> 8;
+    }
+
+    // Int-packed pictures are read in place; anything else is converted to ARGB once.
+    private Pixels pixelsOf(BufferedImage pic) {
+        Pixels known = sources.get(pic);
+        if (known != null) return known;
+        Pixels found;
+        int kind = kindOf(pic.getType());
+        WritableRaster raster = pic.getRaster();
+        if (kind >= 0 && raster.getDataBuffer() instanceof DataBufferInt
+                && raster.getSampleModel() instanceof SinglePixelPackedSampleModel) {
+            SinglePixelPackedSampleModel layout = (SinglePixelPackedSampleModel) raster.getSampleModel();
+            int offset = -raster.getSampleModelTranslateY() * layout.getScanlineStride()
+                    - raster.getSampleModelTranslateX();
+            found = new Pixels(((DataBufferInt) raster.getDataBuffer()).getData(), offset,
+                    layout.getScanlineStride(), kind);
+        } else {
+            int wide = pic.getWidth(), tall = pic.getHeight();
+            found = new Pixels(pic.getRGB(0, 0, wide, tall, null, 0, wide), 0, wide, STRAIGHT);
+        }
+        sources.put(pic, found);
+        return found;
+    }
+
+    private static int kindOf(int type) {
+        switch (type) {
+            case BufferedImage.TYPE_INT_RGB: return OPAQUE;
+            case BufferedImage.TYPE_INT_ARGB: return STRAIGHT;
+            case BufferedImage.TYPE_INT_ARGB_PRE: return PREMULTIPLIED;
+            default: return -1;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package relicscape;
+
+import java.awt.Graphics2D;
+import java.awt.event.KeyEvent;
+import java.awt.image.BufferedImage;
+
+/**
+ * Times the Java2D and raster world renderers against the same scene, offscreen:
+ * java -Djava.awt.headless=true -cp out relicscape.RenderBench [frames] [width] [height]
+ * Pin -Drelicscape.quality=high for like-for-like numbers; otherwise the governor may step down.
+ */
+class RenderBench {
+
+    public static void main(String[] args) throws Exception {
+        int frames = args.length > 0 ? Integer.parseInt(args[0]) : 120;
+        int wide = args.length > 1 ? Integer.parseInt(args[1]) : 1600;
+        int tall = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+
+        GamePanel scene = new GamePanel();
+        scene.setSize(wide, tall);
+        // past the title card and the fade into the world
+        KeyEvent space = new KeyEvent(scene, KeyEvent.KEY_PRESSED, 0, 0, KeyEvent.VK_SPACE, ' ');
+        scene.keyPressed(space);
+        Thread.sleep(2600);
+        scene.keyPressed(space);
+        Thread.sleep(300);
+
+        BufferedImage screen = new BufferedImage(wide, tall, BufferedImage.TYPE_INT_RGB);
+        WorldRenderer[] contenders = {new Java2DWorldRenderer(), new RasterWorldRenderer()};
+        for (WorldRenderer renderer : contenders) {
+            scene.setWorldRenderer(renderer);
+            time(scene, screen, frames / 4); // warm-up
+            double msPerFrame = time(scene, screen, frames);
+            System.out.printf("%-22s %7.2f ms/frame  quality %s%n", renderer.getClass().getSimpleName(), msPerFrame,
+                    scene.qualityLevel());
+        }
+        System.exit(0);
+    }
+
+    private static double time(GamePanel scene, BufferedImage screen, int frames) {
+        long start = System.nanoTime();
+        for (int i = 0; i < frames; i++) {
+            Graphics2D pen = screen.createGraphics();
+            scene.renderFrame(pen);
+            pen.dispose();
+        }
+        return (System.nanoTime() - start) / 1e6 / Math.max(1, frames);
+    }
+}
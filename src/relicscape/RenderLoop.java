@@ -0,0 +1,121 @@
+package relicscape;
+
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.DisplayMode;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+
+/**
+ * Active rendering: a dedicated thread draws GamePanel frames straight into a Canvas
+ * BufferStrategy, paced to the display refresh rate, instead of waiting for Swing repaints.
+ */
+class RenderLoop implements Runnable {
+
+    private static final long SPIN_WINDOW_NANOS = 2_000_000L;
+    private static final int FALLBACK_HZ = 60;
+
+    private final Canvas canvas;
+    private final GamePanel scene;
+    private volatile boolean running;
+    private Thread worker;
+    private int drawnWide = -1;
+    private int drawnTall = -1;
+
+    RenderLoop(Canvas canvas, GamePanel scene) {
+        this.canvas = canvas;
+        this.scene = scene;
+    }
+
+    /** Call once the canvas is displayable (after pack or setVisible). */
+    void start() {
+        if (running) return;
+        canvas.createBufferStrategy(2);
+        running = true;
+        worker = new Thread(this, "relicscape-render");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    void stop() {
+        running = false;
+        if (worker != null) worker.interrupt();
+    }
+
+    @Override
+    public void run() {
+        long frameNanos = 1_000_000_000L / refreshRate();
+        long nextFrame = System.nanoTime();
+        while (running) {
+            try {
+                if (frameNeeded()) {
+                    renderOnce();
+                }
+            } catch (IllegalStateException gone) {
+                // Canvas lost its peer (window closing); nothing left to draw into.
+                running = false;
+                break;
+            }
+            nextFrame += frameNanos;
+            long now = System.nanoTime();
+            if (now - nextFrame > frameNanos) {
+                nextFrame = now; // fell behind; don't try to catch up with a burst of frames
+            }
+            waitUntil(nextFrame);
+        }
+    }
+
+    // Skip the flip entirely when nothing on screen changed.
+    private boolean frameNeeded() {
+        boolean resized = canvas.getWidth() != drawnWide || canvas.getHeight() != drawnTall;
+        drawnWide = canvas.getWidth();
+        drawnTall = canvas.getHeight();
+        return scene.claimDirty() != 0 || resized;
+    }
+
+    private void renderOnce() {
+        BufferStrategy flipper = canvas.getBufferStrategy();
+        if (flipper == null) return;
+        do {
+            do {
+                Graphics2D framePen = (Graphics2D) flipper.getDrawGraphics();
+                try {
+                    framePen.setColor(Color.BLACK);
+                    framePen.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+                    scene.renderFrame(framePen);
+                } finally {
+                    framePen.dispose();
+                }
+            } while (flipper.contentsRestored());
+            flipper.show();
+        } while (flipper.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    // Sleep for the bulk of the wait, then spin the last couple of milliseconds for accuracy.
+    private void waitUntil(long deadline) {
+        while (running) {
+            long left = deadline - System.nanoTime();
+            if (left <= 0) return;
+            if (left > SPIN_WINDOW_NANOS) {
+                try {
+                    Thread.sleep((left - SPIN_WINDOW_NANOS) / 1_000_000L);
+                } catch (InterruptedException stopping) {
+                    return;
+                }
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private int refreshRate() {
+        GraphicsConfiguration cfg = canvas.getGraphicsConfiguration();
+        if (cfg == null) return FALLBACK_HZ;
+        DisplayMode mode = cfg.getDevice().getDisplayMode();
+        int hz = mode == null ? DisplayMode.REFRESH_RATE_UNKNOWN : mode.getRefreshRate();
+        return hz > 0 ? hz : FALLBACK_HZ;
+    }
+}
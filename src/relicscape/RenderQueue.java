@@ -0,0 +1,204 @@
+package relicscape;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the world's draw commands for one frame, then plays them into a WorldRenderer
+ * in layer order. Inside a y-sorted layer things further down the screen draw later, so a
+ * tall golem standing below the hero covers him and one standing above is covered by him;
+ * ties there are grouped by source image so runs from the same atlas page or baked variant
+ * go out back to back. Flat layers keep submission order, since their draws overlap (the
+ * portal halo over the blasts), so only runs already queued back to back share a source.
+ * Command objects are reused frame to frame; painting thread only.
+ */
+class RenderQueue {
+
+    /** Back to front. */
+    enum Layer {
+        /** Relic drops and their halos, under the fog. */
+        GROUND(false),
+        /** Corruption shading laid over the ground. */
+        TINT(false),
+        FOG(false),
+        /** Hero and monsters, sorted by where they stand. */
+        ACTORS(true),
+        /** Projectiles and glows, over everything in the world. */
+        EFFECTS(false);
+
+        final boolean ySorted;
+
+        Layer(boolean ySorted) {
+            this.ySorted = ySorted;
+        }
+    }
+
+    /** Anything that doesn't fit the stock commands, like the fog pass. */
+    interface Drawing {
+        void paint(WorldRenderer out);
+    }
+
+    private static final int BLEND = 0;
+    private static final int SCALED = 1;
+    private static final int FILL = 2;
+    private static final int OVAL = 3;
+    private static final int CUSTOM = 4;
+
+    private static final int Y_BITS = 26;
+    private static final int BATCH_BITS = 26;
+    private static final long Y_BIAS = 1L << (Y_BITS - 1);
+    private static final long Y_MASK = (1L << Y_BITS) - 1;
+    private static final long BATCH_MASK = (1L << BATCH_BITS) - 1;
+    /** Colour-only commands batch together; there's no picture to switch. */
+    private static final Object FLAT = new Object();
+
+    private static final class Command {
+        int kind;
+        BufferedImage pic;
+        AtlasRegion art;
+        Drawing drawing;
+        int x, y, wide, tall, argb;
+    }
+
+    private final List<Command> pool = new ArrayList<>();
+    private final Map<Object, Integer> batchIds = new IdentityHashMap<>();
+    private int used;
+    private long[] keys = new long[64];
+    private long[] spareKeys = new long[64];
+    private int[] order = new int[64];
+    private int[] spareOrder = new int[64];
+    private final int[] counts = new int[257];
+
+    /** Unscaled source-over blit of pic, sorted by sortY when the layer is y-sorted. */
+    void blend(Layer layer, int sortY, BufferedImage pic, int x, int y) {
+        Command c = next(layer, sortY, pic);
+        c.kind = BLEND;
+        c.pic = pic;
+        c.x = x;
+        c.y = y;
+    }
+
+    /** Scaled blit of an atlas region; a negative wide mirrors. */
+    void blendScaled(Layer layer, int sortY, AtlasRegion art, int x, int y, int wide, int tall) {
+        Command c = next(layer, sortY, art.page);
+        c.kind = SCALED;
+        c.art = art;
+        c.x = x;
+        c.y = y;
+        c.wide = wide;
+        c.tall = tall;
+    }
+
+    void fill(Layer layer, int sortY, int x, int y, int wide, int tall, int argb) {
+        Command c = next(layer, sortY, FLAT);
+        c.kind = FILL;
+        fillShape(c, x, y, wide, tall, argb);
+    }
+
+    void fillOval(Layer layer, int sortY, int x, int y, int wide, int tall, int argb) {
+        Command c = next(layer, sortY, FLAT);
+        c.kind = OVAL;
+        fillShape(c, x, y, wide, tall, argb);
+    }
+
+    void custom(Layer layer, int sortY, Drawing drawing) {
+        Command c = next(layer, sortY, drawing);
+        c.kind = CUSTOM;
+        c.drawing = drawing;
+    }
+
+    /** Sorts what was queued since the last flush, plays it into out and empties the queue. */
+    void flush(WorldRenderer out) {
+        sort();
+        for (int i = 0; i < used; i++) {
+            Command c = pool.get(order[i]);
+            switch (c.kind) {
+                case BLEND -> out.blend(c.pic, c.x, c.y);
+                case SCALED -> out.blendScaled(c.art, c.x, c.y, c.wide, c.tall);
+                case FILL -> out.fill(c.x, c.y, c.wide, c.tall, c.argb);
+                case OVAL -> out.fillOval(c.x, c.y, c.wide, c.tall, c.argb);
+                default -> c.drawing.paint(out);
+            }
+            // don't keep last frame's pictures alive through the pool
+            c.pic = null;
+            c.art = null;
+            c.drawing = null;
+        }
+        used = 0;
+        batchIds.clear();
+    }
+
+    private Command next(Layer layer, int sortY, Object source) {
+        if (used == pool.size()) {
+            pool.add(new Command());
+        }
+        if (used == keys.length) {
+            int grown = used * 2;
+            keys = Arrays.copyOf(keys, grown);
+            spareKeys = new long[grown];
+            order = new int[grown];
+            spareOrder = new int[grown];
+        }
+        long row = 0L;
+        long tie = used; // flat layers: submission order
+        if (layer.ySorted) {
+            row = Math.max(0L, Math.min(Y_MASK, sortY + Y_BIAS));
+            Integer batch = batchIds.get(source);
+            if (batch == null) {
+                batch = batchIds.size();
+                batchIds.put(source, batch);
+            }
+            tie = batch;
+        }
+        keys[used] = (long) layer.ordinal() << (Y_BITS + BATCH_BITS) | row << BATCH_BITS | (tie & BATCH_MASK);
+        return pool.get(used++);
+    }
+
+    private static void fillShape(Command c, int x, int y, int wide, int tall, int argb) {
+        c.x = x;
+        c.y = y;
+        c.wide = wide;
+        c.tall = tall;
+        c.argb = argb;
+    }
+
+    /**
+     * Stable LSD radix sort of the command indices, a byte at a time, skipping bytes that
+     * are the same in every key (usually most of them: few layers, few distinct rows).
+     */
+    private void sort() {
+        long anyBits = 0L;
+        long allBits = -1L;
+        for (int i = 0; i < used; i++) {
+            order[i] = i;
+            anyBits |= keys[i];
+            allBits &= keys[i];
+        }
+        long varying = anyBits ^ allBits;
+        for (int shift = 0; shift < 64; shift += 8) {
+            if (((varying >>> shift) & 0xFF) == 0) continue;
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < used; i++) {
+                counts[(int) ((keys[i] >>> shift) & 0xFF) + 1]++;
+            }
+            for (int d = 0; d < 256; d++) {
+                counts[d + 1] += counts[d];
+            }
+            for (int i = 0; i < used; i++) {
+                int slot = counts[(int) ((keys[i] >>> shift) & 0xFF)]++;
+                spareKeys[slot] = keys[i];
+                spareOrder[slot] = order[i];
+            }
+            long[] swapKeys = keys;
+            keys = spareKeys;
+            spareKeys = swapKeys;
+            int[] swapOrder = order;
+            order = spareOrder;
+            spareOrder = swapOrder;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package relicscape;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * Map tiles pre-scaled to the on-screen tile size as display-compatible images.
+ * The whole cache is dropped when the tile size changes and refilled lazily.
+ */
+class ScaledTileCache {
+
+    private final TMXMapLoader mapLoader;
+    private final TextureAtlas atlas;
+    private final BudgetedImageCache<Integer> scaledPics;
+    private int scaledSize = -1;
+
+    ScaledTileCache(TMXMapLoader mapLoader, TextureAtlas atlas, long budgetBytes) {
+        this.mapLoader = mapLoader;
+        this.atlas = atlas;
+        this.scaledPics = new BudgetedImageCache<>(budgetBytes);
+    }
+
+    /** Tile art for the gid at tileSize x tileSize, or null if the gid has no image. */
+    BufferedImage tileFor(int gid, int tileSize, GraphicsConfiguration screenCfg) {
+        if (tileSize != scaledSize) {
+            scaledPics.clear();
+            scaledSize = tileSize;
+        }
+        Integer key = gid;
+        BufferedImage scaled = scaledPics.get(key);
+        if (scaled != null) return scaled;
+
+        BufferedImage raw = mapLoader.getTileImage(gid);
+        if (raw == null) return null;
+        scaled = screenCfg != null
+                ? screenCfg.createCompatibleImage(tileSize, tileSize, Transparency.TRANSLUCENT)
+                : new BufferedImage(tileSize, tileSize, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D scalePen = scaled.createGraphics();
+        atlas.regionOf(raw).draw(scalePen, 0, 0, tileSize, tileSize);
+        scalePen.dispose();
+        scaledPics.put(key, scaled);
+        return scaled;
+    }
+
+    void clear() {
+        scaledPics.clear();
+        scaledSize = -1;
+    }
+}
@@ -0,0 +1,48 @@
+package relicscape;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs the game simulation on its own thread so game logic never waits on Java2D and
+ * painting never waits on game logic. Sleeps until GamePanel says the next step is due,
+ * or until input arrives.
+ */
+class SimLoop implements Runnable {
+
+    private final GamePanel scene;
+    private volatile boolean running;
+    private Thread worker;
+
+    SimLoop(GamePanel scene) {
+        this.scene = scene;
+    }
+
+    void start() {
+        if (running) return;
+        running = true;
+        worker = new Thread(this, "relicscape-sim");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    void stop() {
+        running = false;
+        wake();
+    }
+
+    /** Run the loop now rather than at the next step, e.g. because a key was pressed. */
+    void wake() {
+        Thread sleeper = worker;
+        if (sleeper != null) LockSupport.unpark(sleeper);
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            long waitNanos = scene.simulate(System.nanoTime());
+            if (running && waitNanos > 0) {
+                LockSupport.parkNanos(this, waitNanos);
+            }
+        }
+    }
+}
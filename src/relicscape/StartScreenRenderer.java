@@ -6,6 +6,7 @@ import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.GradientPaint;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.geom.RoundRectangle2D;
 
@@ -14,10 +15,21 @@ class StartScreenRenderer {
     private final Font titleFont = new Font("Garamond", Font.BOLD, 56);
     private final Font subtitleFont = new Font("Garamond", Font.PLAIN, 20);
     private final Font hintFont = new Font("Garamond", Font.PLAIN, 16);
+    private final UiLayerCache uiLayers;
 
+    StartScreenRenderer(UiLayerCache uiLayers){
+        this.uiLayers = uiLayers;
+    }
+
+    /** The splash never changes for a given window size, so it is painted once and blitted. */
     void draw(Graphics2D splashPen, int wide, int tall){
         splashPen.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
                             RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        uiLayers.draw(splashPen, "title", UiLayerCache.inputs(), new Rectangle(0, 0, wide, tall),
+                layerPen -> paintSplash(layerPen, wide, tall));
+    }
+
+    private void paintSplash(Graphics2D splashPen, int wide, int tall){
 
         GradientPaint skyPaint = new GradientPaint(0, 0, new Color(14, 14, 18),
                                              0, tall, new Color(6, 6, 10));
@@ -18,6 +18,13 @@ public class TMXMapLoader {
     private boolean[][] nopeGrid;
     private String homeNest = ".";
     private int[][] baseVisualLayer;
+    private final List<Boolean> paintSkips = new ArrayList<>();
+    private BufferedImage[] gidPics = new BufferedImage[1];
+    private int[][][] renderPlan = new int[0][][];
+    private World.CellWatcher cellWatcher;
+    private int artTileSize = 32;
+    private TileAnimations tileAnimations = TileAnimations.NONE;
+    private TileAnimations.Builder pendingAnimations;
 
     public World load(String tmxPath) {
         try {
@@ -35,10 +42,12 @@ public class TMXMapLoader {
                 Element map = doc.getDocumentElement();
                 int width = Integer.parseInt(map.getAttribute("width"));
                 int height = Integer.parseInt(map.getAttribute("height"));
+                artTileSize = parseIntOrDefault(map.getAttribute("tilewidth"), 32);
 
                 NodeList tsNodes = map.getElementsByTagName("tileset");
                 tileStacks.clear();
                 shadowStacks.clear();
+                pendingAnimations = new TileAnimations.Builder();
                 for (int i = 0; i < tsNodes.getLength(); i++) {
                     Element ts = (Element) tsNodes.item(i);
                     int firstGid = Integer.parseInt(ts.getAttribute("firstgid"));
@@ -49,10 +58,14 @@ public class TMXMapLoader {
                     String resolved = resolvePath(homeNest, source);
                     loadTsx(firstGid, resolved);
                 }
+                buildGidTable();
+                tileAnimations = pendingAnimations.build(gidPics.length);
+                pendingAnimations = null;
 
                 World world = new World(width, height);
 
                 paintLayers.clear();
+                paintSkips.clear();
                 petLayers.clear();
                 nopeGrid = null;
                 baseVisualLayer = null;
@@ -86,6 +99,7 @@ public class TMXMapLoader {
                         }
                     } else {
                         paintLayers.add(gids);
+                        paintSkips.add(lname.equals("ending") || "0".equals(layer.getAttribute("visible")));
                         if (baseVisualLayer == null) {
                             baseVisualLayer = gids;
                         }
@@ -95,6 +109,8 @@ public class TMXMapLoader {
                     }
                 }
 
+                compileRenderPlan();
+
                 if (!paintLayers.isEmpty()) {
                     int[][] base = paintLayers.get(0);
                     for (int y = 0; y < height; y++) {
@@ -113,16 +129,23 @@ public class TMXMapLoader {
 
     /** Returns the tile image for a given global ID, or null if none. */
     public java.awt.image.BufferedImage getTileImage(int gid) {
-        if (gid <= 0) return null;
-        for (int i = tileStacks.size() - 1; i >= 0; i--) {
-            Tileset ts = tileStacks.get(i);
-            java.awt.image.BufferedImage img = ts.getTile(gid);
-            if (img != null) return img;
-        }
-        for (BlackTileset bts : shadowStacks) {
-            if (bts.contains(gid)) return bts.blackTile;
-        }
-        return null;
+        if (gid <= 0 || gid >= gidPics.length) return null;
+        return gidPics[gid];
+    }
+
+    /** Width in pixels of one map tile as drawn in the tilesets. */
+    public int getArtTileSize() {
+        return artTileSize;
+    }
+
+    /** Which gids animate and what they show when; empty if no tileset has animations. */
+    public TileAnimations getTileAnimations() {
+        return tileAnimations;
+    }
+
+    /** Tile images indexed directly by global ID; slot 0 and gaps are null. Do not modify. */
+    public BufferedImage[] getTileTable() {
+        return gidPics;
     }
 
     /** Return all non-collision layers (bottom-to-top). */
@@ -130,12 +153,24 @@ public class TMXMapLoader {
         return java.util.Collections.unmodifiableList(paintLayers);
     }
 
+    /**
+     * Visual layers that actually get drawn (bottom-to-top), with marker and hidden
+     * layers such as "ending" already dropped. Grids are live; do not modify.
+     */
+    public int[][][] getRenderPlan() {
+        return renderPlan;
+    }
+
     /** Return the grid for a named layer (case-insensitive), or null if missing. */
     public int[][] getLayer(String name){
         if(name==null) return null;
         return petLayers.get(name.toLowerCase());
     }
 
+    public void setCellWatcher(World.CellWatcher watcher) {
+        this.cellWatcher = watcher;
+    }
+
     public void removeTileFromTilesetLayers(int x, int y) {
         if(x < 0 || y < 0) return;
         for(int[][] layer : paintLayers){
@@ -148,6 +183,7 @@ public class TMXMapLoader {
             if(y >= layer.length || x >= layer[0].length) continue;
             layer[y][x] = 0;
         }
+        if(cellWatcher != null) cellWatcher.cellChanged(x, y);
     }
 
     /** True if the named layer has a non-zero tile at (x,y). */
@@ -183,6 +219,51 @@ public class TMXMapLoader {
         }
     }
 
+    private void buildGidTable() {
+        int gidEnd = 1;
+        for (Tileset ts : tileStacks) {
+            gidEnd = Math.max(gidEnd, ts.firstTid + ts.tileSpan());
+        }
+        for (BlackTileset bts : shadowStacks) {
+            gidEnd = Math.max(gidEnd, bts.firstGid + bts.tileCount);
+        }
+        gidPics = new BufferedImage[gidEnd];
+        for (int gid = 1; gid < gidEnd; gid++) {
+            gidPics[gid] = resolveTileImage(gid);
+        }
+    }
+
+    // Later tilesets win, then the black stand-ins; only run once per gid at load time.
+    private BufferedImage resolveTileImage(int gid) {
+        for (int i = tileStacks.size() - 1; i >= 0; i--) {
+            BufferedImage img = tileStacks.get(i).getTile(gid);
+            if (img != null) return img;
+        }
+        for (BlackTileset bts : shadowStacks) {
+            if (bts.contains(gid)) return bts.blackTile;
+        }
+        return null;
+    }
+
+    private void compileRenderPlan() {
+        List<int[][]> drawn = new ArrayList<>();
+        for (int i = 0; i < paintLayers.size(); i++) {
+            int[][] grid = paintLayers.get(i);
+            if (paintSkips.get(i) || isBlankGrid(grid)) continue;
+            drawn.add(grid);
+        }
+        renderPlan = drawn.toArray(new int[0][][]);
+    }
+
+    private boolean isBlankGrid(int[][] grid) {
+        for (int[] row : grid) {
+            for (int gid : row) {
+                if (gid != 0) return false;
+            }
+        }
+        return true;
+    }
+
     private void loadTsx(int firstGid, String tsxPath) {
         try (InputStream tsxStream = openStream(tsxPath)) {
             if (tsxStream == null) {
@@ -202,6 +283,7 @@ public class TMXMapLoader {
             int columns = parseIntOrDefault(root.getAttribute("columns"), 1);
             int tileCount = parseIntOrDefault(root.getAttribute("tilecount"), columns);
             String tsName = root.getAttribute("name");
+            readAnimations(root, firstGid);
 
             NodeList imageNodes = root.getElementsByTagName("image");
             if (imageNodes.getLength() == 0) return;
@@ -223,6 +305,25 @@ public class TMXMapLoader {
         }
     }
 
+    // <tile id="n"><animation><frame tileid="m" duration="ms"/>...</animation></tile>, ids local to the tileset.
+    private void readAnimations(Element root, int firstGid) {
+        NodeList tileNodes = root.getElementsByTagName("tile");
+        for (int i = 0; i < tileNodes.getLength(); i++) {
+            Element tile = (Element) tileNodes.item(i);
+            NodeList animNodes = tile.getElementsByTagName("animation");
+            if (animNodes.getLength() == 0) continue;
+            NodeList frameNodes = ((Element) animNodes.item(0)).getElementsByTagName("frame");
+            int[] frameGids = new int[frameNodes.getLength()];
+            int[] durations = new int[frameNodes.getLength()];
+            for (int f = 0; f < frameNodes.getLength(); f++) {
+                Element frame = (Element) frameNodes.item(f);
+                frameGids[f] = firstGid + parseIntOrDefault(frame.getAttribute("tileid"), 0);
+                durations[f] = parseIntOrDefault(frame.getAttribute("duration"), 100);
+            }
+            pendingAnimations.add(firstGid + parseIntOrDefault(tile.getAttribute("id"), 0), frameGids, durations);
+        }
+    }
+
     private String getCsvData(Element layer) {
         NodeList dataNodes = layer.getElementsByTagName("data");
         if (dataNodes.getLength() == 0) return null;
@@ -0,0 +1,51 @@
+package relicscape;
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers text work that painters would otherwise redo every frame: string widths
+ * per (text, font) and Font instances per size.
+ */
+final class TextCache {
+
+    private static final int MAX_ENTRIES = 256;
+
+    private static final Map<List<Object>, Integer> widths = lru();
+    private static final Map<List<Object>, Font> fonts = lru();
+
+    private TextCache() { }
+
+    static synchronized int width(FontMetrics sizer, String text) {
+        List<Object> key = Arrays.asList(text, sizer.getFont());
+        Integer wide = widths.get(key);
+        if (wide == null) {
+            wide = sizer.stringWidth(text);
+            widths.put(key, wide);
+        }
+        return wide;
+    }
+
+    static synchronized Font font(String name, int style, int size) {
+        List<Object> key = Arrays.asList(name, style, size);
+        Font font = fonts.get(key);
+        if (font == null) {
+            font = new Font(name, style, size);
+            fonts.put(key, font);
+        }
+        return font;
+    }
+
+    private static <V> Map<List<Object>, V> lru() {
+        return new LinkedHashMap<List<Object>, V>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Object>, V> eldest) {
+                return size() > MAX_ENTRIES;
+            }
+        };
+    }
+}
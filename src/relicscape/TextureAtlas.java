@@ -0,0 +1,117 @@
+package relicscape;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.imageio.ImageIO;
+
+/**
+ * Packs loose sprite frames and tiles into a few large display-compatible pages at startup,
+ * shelf by shelf, tallest pictures first. Pictures are looked up by the image they were
+ * added as, so game code can keep passing plain BufferedImages around. Filled and packed
+ * before the sim starts, read-only afterwards.
+ */
+class TextureAtlas {
+
+    static final int PAGE_SIZE = 2048;
+    private static final int GUTTER = 1;
+
+    private final Map<BufferedImage, String> pending = new LinkedHashMap<>();
+    private final Map<BufferedImage, AtlasRegion> regions = new IdentityHashMap<>();
+    private final Map<AtlasRegion, String> names = new LinkedHashMap<>();
+    private final List<BufferedImage> pages = new ArrayList<>();
+
+    /** Queue a picture for the next pack(); adding the same image twice is harmless. */
+    void add(String name, BufferedImage pic) {
+        if (pic == null || regions.containsKey(pic)) return;
+        pending.putIfAbsent(pic, name);
+    }
+
+    void addAll(String name, BufferedImage[] pics) {
+        if (pics == null) return;
+        for (int i = 0; i < pics.length; i++) {
+            add(name + "#" + i, pics[i]);
+        }
+    }
+
+    /** Copy everything queued into pages. screenCfg may be null, e.g. when headless. */
+    void pack(GraphicsConfiguration screenCfg) {
+        List<BufferedImage> queued = new ArrayList<>(pending.keySet());
+        queued.sort((a, b) -> b.getHeight() != a.getHeight()
+                ? Integer.compare(b.getHeight(), a.getHeight())
+                : Integer.compare(b.getWidth(), a.getWidth()));
+
+        BufferedImage page = null;
+        Graphics2D pagePen = null;
+        int shelfX = 0, shelfY = 0, shelfTall = 0;
+        for (BufferedImage pic : queued) {
+            int wide = pic.getWidth() + GUTTER;
+            int tall = pic.getHeight() + GUTTER;
+            if (wide > PAGE_SIZE || tall > PAGE_SIZE) continue; // left standalone
+            if (page != null && shelfX + wide > PAGE_SIZE) {
+                shelfX = 0;
+                shelfY += shelfTall;
+                shelfTall = 0;
+            }
+            if (page == null || shelfY + tall > PAGE_SIZE) {
+                if (pagePen != null) pagePen.dispose();
+                page = newPage(screenCfg);
+                pagePen = page.createGraphics();
+                pagePen.setComposite(AlphaComposite.Src);
+                pages.add(page);
+                shelfX = shelfY = shelfTall = 0;
+            }
+            pagePen.drawImage(pic, shelfX, shelfY, null);
+            AtlasRegion region = new AtlasRegion(page, shelfX, shelfY, pic.getWidth(), pic.getHeight());
+            regions.put(pic, region);
+            names.put(region, pending.get(pic));
+            shelfX += wide;
+            shelfTall = Math.max(shelfTall, tall);
+        }
+        if (pagePen != null) pagePen.dispose();
+        pending.clear();
+    }
+
+    /** Where pic was packed, or a region over pic itself if it never made it into a page. */
+    AtlasRegion regionOf(BufferedImage pic) {
+        AtlasRegion region = regions.get(pic);
+        return region != null ? region : AtlasRegion.of(pic);
+    }
+
+    /**
+     * Write the pages as page-N.png plus an atlas.txt index (tab-separated name, page, x, y, wide, tall),
+     * the same layout a prebuilt atlas would ship with.
+     */
+    void writeTo(File dir) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create atlas directory " + dir);
+        }
+        for (int i = 0; i < pages.size(); i++) {
+            ImageIO.write(pages.get(i), "png", new File(dir, "page-" + i + ".png"));
+        }
+        try (PrintWriter index = new PrintWriter(new File(dir, "atlas.txt"), StandardCharsets.UTF_8)) {
+            for (Map.Entry<AtlasRegion, String> entry : names.entrySet()) {
+                AtlasRegion r = entry.getKey();
+                index.println(entry.getValue() + "\t" + pages.indexOf(r.page) + "\t" + r.x + "\t" + r.y
+                        + "\t" + r.wide + "\t" + r.tall);
+            }
+        }
+    }
+
+    private static BufferedImage newPage(GraphicsConfiguration screenCfg) {
+        return screenCfg != null
+                ? screenCfg.createCompatibleImage(PAGE_SIZE, PAGE_SIZE, Transparency.TRANSLUCENT)
+                : new BufferedImage(PAGE_SIZE, PAGE_SIZE, BufferedImage.TYPE_INT_ARGB);
+    }
+}
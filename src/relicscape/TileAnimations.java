@@ -0,0 +1,121 @@
+package relicscape;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tiled animations from the .tsx files, flattened into a few int tables: which gids
+ * animate, each animation's frame gids and when each frame ends within the loop.
+ * Read-only once built, so any thread may ask what a gid shows at a given clock.
+ */
+class TileAnimations {
+
+    static final TileAnimations NONE = new Builder().build(0);
+
+    /** Per gid: its animation, or -1 for a still tile. */
+    private final int[] animOf;
+    private final int[] firstFrame;
+    private final int[] frameCount;
+    private final int[] loopMs;
+    private final int[] frameGids;
+    /** Milliseconds into the loop at which each frame hands over to the next. */
+    private final int[] frameEnds;
+
+    private TileAnimations(int[] animOf, int[] firstFrame, int[] frameCount, int[] loopMs,
+                           int[] frameGids, int[] frameEnds) {
+        this.animOf = animOf;
+        this.firstFrame = firstFrame;
+        this.frameCount = frameCount;
+        this.loopMs = loopMs;
+        this.frameGids = frameGids;
+        this.frameEnds = frameEnds;
+    }
+
+    boolean isEmpty() {
+        return loopMs.length == 0;
+    }
+
+    boolean animates(int gid) {
+        return gid > 0 && gid < animOf.length && animOf[gid] >= 0;
+    }
+
+    /** The gid to draw for gid when the animation clock reads clockMs; still tiles map to themselves. */
+    int frameAt(int gid, long clockMs) {
+        if (!animates(gid)) return gid;
+        int anim = animOf[gid];
+        return frameGids[frameIndex(anim, clockMs)];
+    }
+
+    /** Whether any animation shows a different frame at toMs than it did at fromMs. */
+    boolean frameChanged(long fromMs, long toMs) {
+        for (int anim = 0; anim < loopMs.length; anim++) {
+            if (frameCount[anim] < 2) continue;
+            if (toMs - fromMs >= loopMs[anim] || frameIndex(anim, fromMs) != frameIndex(anim, toMs)) return true;
+        }
+        return false;
+    }
+
+    private int frameIndex(int anim, long clockMs) {
+        int into = (int) Math.floorMod(clockMs, (long) loopMs[anim]);
+        int frame = firstFrame[anim];
+        int last = frame + frameCount[anim] - 1;
+        while (frame < last && frameEnds[frame] <= into) frame++;
+        return frame;
+    }
+
+    /** Collects animations while the tilesets load. */
+    static final class Builder {
+        private final List<Integer> owners = new ArrayList<>();
+        private final List<int[]> gidLists = new ArrayList<>();
+        private final List<int[]> durationLists = new ArrayList<>();
+
+        /** gid animates through frameGids, showing each for the matching durationsMs. */
+        void add(int gid, int[] frameGids, int[] durationsMs) {
+            int total = 0;
+            for (int ms : durationsMs) total += Math.max(0, ms);
+            if (frameGids.length == 0 || total <= 0) return; // nothing that could ever move
+            owners.add(gid);
+            gidLists.add(frameGids);
+            durationLists.add(durationsMs);
+        }
+
+        /** Tables for gids below gidEnd; animations on gids past it are dropped. */
+        TileAnimations build(int gidEnd) {
+            int[] animOf = new int[Math.max(0, gidEnd)];
+            Arrays.fill(animOf, -1);
+            List<Integer> kept = new ArrayList<>();
+            int frames = 0;
+            for (int i = 0; i < owners.size(); i++) {
+                int gid = owners.get(i);
+                if (gid > 0 && gid < animOf.length) {
+                    kept.add(i);
+                    frames += gidLists.get(i).length;
+                }
+            }
+            int[] firstFrame = new int[kept.size()];
+            int[] frameCount = new int[kept.size()];
+            int[] loopMs = new int[kept.size()];
+            int[] frameGids = new int[frames];
+            int[] frameEnds = new int[frames];
+            int at = 0;
+            for (int anim = 0; anim < kept.size(); anim++) {
+                int source = kept.get(anim);
+                int[] gids = gidLists.get(source);
+                int[] durations = durationLists.get(source);
+                animOf[owners.get(source)] = anim;
+                firstFrame[anim] = at;
+                frameCount[anim] = gids.length;
+                int ends = 0;
+                for (int f = 0; f < gids.length; f++) {
+                    ends += Math.max(0, durations[f]);
+                    frameGids[at] = gids[f];
+                    frameEnds[at] = ends;
+                    at++;
+                }
+                loopMs[anim] = ends;
+            }
+            return new TileAnimations(animOf, firstFrame, frameCount, loopMs, frameGids, frameEnds);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package relicscape;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Bakes the static visual layers into pre-scaled images, one per square block of
+ * tiles, so a frame blits a handful of chunks instead of every layer of every tile.
+ * Cells holding an animated gid are redrawn over their chunk each frame, whole layer
+ * stack and all, so the baked art never has to change when an animation steps. Baked
+ * chunks are evicted by pixel bytes, not count, since one chunk's size grows with the
+ * square of the tile size.
+ */
+class TileChunkCache implements World.CellWatcher {
+
+    static final int CHUNK_TILES = 16;
+    private static final Color FLOOR_INK = new Color(20, 25, 28);
+    private static final int EVERY_CHUNK = -1;
+    private static final int[] NO_CELLS = new int[0];
+
+    private final TMXMapLoader mapLoader;
+    private final ScaledTileCache scaledTiles;
+    private final int wide;
+    private final int tall;
+    private final int chunksWide;
+    private final int chunksTall;
+    private final BudgetedImageCache<Integer> bakedChunks;
+    /** Per chunk, the cells in it (y * CHUNK_TILES + x, chunk-local) that animate; found while baking. */
+    private final Map<Integer, int[]> animatedCells = new HashMap<>();
+    // Edits arrive from the sim thread; the drawing thread applies them before its next blit.
+    private final ConcurrentLinkedQueue<Integer> staleChunks = new ConcurrentLinkedQueue<>();
+    private int bakedTileSize = -1;
+    private volatile boolean showedAnimation;
+
+    TileChunkCache(TMXMapLoader mapLoader, ScaledTileCache scaledTiles, int wide, int tall, long budgetBytes) {
+        this.mapLoader = mapLoader;
+        this.scaledTiles = scaledTiles;
+        this.wide = wide;
+        this.tall = tall;
+        this.chunksWide = (wide + CHUNK_TILES - 1) / CHUNK_TILES;
+        this.chunksTall = (tall + CHUNK_TILES - 1) / CHUNK_TILES;
+        this.bakedChunks = new BudgetedImageCache<>(budgetBytes);
+    }
+
+    /** Lets the caller skip chunks that would end up fully hidden, e.g. under undiscovered fog. */
+    interface ChunkGate {
+        boolean shows(int left, int top, int wide, int tall);
+    }
+
+    @Override
+    public void cellChanged(int x, int y) {
+        if (x < 0 || y < 0 || x >= wide || y >= tall) return;
+        staleChunks.offer(chunkKey(x / CHUNK_TILES, y / CHUNK_TILES));
+    }
+
+    void invalidateAll() {
+        staleChunks.offer(EVERY_CHUNK);
+    }
+
+    /** Whether the last draw put any animated cell on screen; safe to ask from the sim thread. */
+    boolean showedAnimation() {
+        return showedAnimation;
+    }
+
+    /**
+     * Blit every chunk overlapping the given tile window, with animated cells as they
+     * look at clockMs. Tile (x,y) lands at (originX + x*tileSize, originY + y*tileSize);
+     * the renderer clips.
+     */
+    void draw(WorldRenderer chunkPen, int viewLeft, int viewTop, int viewWide, int viewTall,
+              int originX, int originY, int tileSize, ChunkGate gate, long clockMs) {
+        Integer stale;
+        while ((stale = staleChunks.poll()) != null) {
+            if (stale == EVERY_CHUNK) {
+                bakedChunks.clear();
+                animatedCells.clear();
+            } else {
+                bakedChunks.remove(stale);
+                animatedCells.remove(stale);
+            }
+        }
+        if (tileSize != bakedTileSize) {
+            // ScaledTileCache notices the size change on its own the first time it is asked.
+            bakedChunks.clear();
+            bakedTileSize = tileSize;
+        }
+        int firstCx = Math.max(0, Math.floorDiv(viewLeft, CHUNK_TILES));
+        int firstCy = Math.max(0, Math.floorDiv(viewTop, CHUNK_TILES));
+        int lastCx = Math.min(chunksWide - 1, Math.floorDiv(viewLeft + viewWide - 1, CHUNK_TILES));
+        int lastCy = Math.min(chunksTall - 1, Math.floorDiv(viewTop + viewTall - 1, CHUNK_TILES));
+        GraphicsConfiguration screenCfg = chunkPen.deviceConfiguration();
+        boolean animating = false;
+        for (int cy = firstCy; cy <= lastCy; cy++) {
+            for (int cx = firstCx; cx <= lastCx; cx++) {
+                if (gate != null) {
+                    Rectangle cells = cellsOf(cx, cy);
+                    if (!gate.shows(cells.x, cells.y, cells.width, cells.height)) continue;
+                }
+                Integer key = chunkKey(cx, cy);
+                BufferedImage chunk = chunkFor(key, cx, cy, tileSize, screenCfg);
+                int px = originX + cx * CHUNK_TILES * tileSize;
+                int py = originY + cy * CHUNK_TILES * tileSize;
+                chunkPen.copy(chunk, px, py);
+                int[] cells = animatedCells.getOrDefault(key, NO_CELLS);
+                if (cells.length > 0) {
+                    animating |= drawAnimatedCells(chunkPen, cells, cx, cy, viewLeft, viewTop, viewWide,
+                            viewTall, px, py, tileSize, screenCfg, clockMs);
+                }
+            }
+        }
+        showedAnimation = animating;
+    }
+
+    // Floor, then every layer of the cell with animated gids swapped for their current frame.
+    private boolean drawAnimatedCells(WorldRenderer chunkPen, int[] cells, int cx, int cy, int viewLeft, int viewTop,
+                                      int viewWide, int viewTall, int chunkX, int chunkY, int tileSize,
+                                      GraphicsConfiguration screenCfg, long clockMs) {
+        TileAnimations animations = mapLoader.getTileAnimations();
+        BufferedImage[] gidPics = mapLoader.getTileTable();
+        int[][][] plan = mapLoader.getRenderPlan();
+        int floorArgb = FLOOR_INK.getRGB();
+        boolean any = false;
+        for (int cell : cells) {
+            int localX = cell % CHUNK_TILES;
+            int localY = cell / CHUNK_TILES;
+            int worldX = cx * CHUNK_TILES + localX;
+            int worldY = cy * CHUNK_TILES + localY;
+            if (worldX < viewLeft || worldY < viewTop || worldX >= viewLeft + viewWide || worldY >= viewTop + viewTall) {
+                continue;
+            }
+            any = true;
+            int px = chunkX + localX * tileSize;
+            int py = chunkY + localY * tileSize;
+            chunkPen.fill(px, py, tileSize, tileSize, floorArgb);
+            for (int[][] layerGrid : plan) {
+                int gid = animations.frameAt(layerGrid[worldY][worldX], clockMs);
+                if (gid <= 0 || gid >= gidPics.length || gidPics[gid] == null) continue;
+                BufferedImage imgTile = scaledTiles.tileFor(gid, tileSize, screenCfg);
+                if (imgTile != null) {
+                    chunkPen.blend(imgTile, px, py);
+                }
+            }
+        }
+        return any;
+    }
+
+    private BufferedImage chunkFor(Integer key, int cx, int cy, int tileSize, GraphicsConfiguration screenCfg) {
+        BufferedImage chunk = bakedChunks.get(key);
+        if (chunk == null) {
+            chunk = bake(key, cx, cy, tileSize, screenCfg);
+            bakedChunks.put(key, chunk);
+        }
+        return chunk;
+    }
+
+    private BufferedImage bake(Integer key, int cx, int cy, int tileSize, GraphicsConfiguration screenCfg) {
+        Rectangle cells = cellsOf(cx, cy);
+        int pixWide = cells.width * tileSize;
+        int pixTall = cells.height * tileSize;
+        BufferedImage chunk = screenCfg != null
+                ? screenCfg.createCompatibleImage(pixWide, pixTall, Transparency.OPAQUE)
+                : new BufferedImage(pixWide, pixTall, BufferedImage.TYPE_INT_RGB);
+        Graphics2D bakePen = chunk.createGraphics();
+        bakePen.setColor(FLOOR_INK);
+        bakePen.fillRect(0, 0, pixWide, pixTall);
+
+        int[] animatedHere = NO_CELLS;
+        if (mapLoader != null) {
+            TileAnimations animations = mapLoader.getTileAnimations();
+            boolean[] animated = animations.isEmpty() ? null : new boolean[CHUNK_TILES * CHUNK_TILES];
+            int animatedCount = 0;
+            BufferedImage[] gidPics = mapLoader.getTileTable();
+            for (int[][] layerGrid : mapLoader.getRenderPlan()) {
+                for (int y = 0; y < cells.height; y++) {
+                    int[] gridRow = layerGrid[cells.y + y];
+                    for (int x = 0; x < cells.width; x++) {
+                        int gid = gridRow[cells.x + x];
+                        if (animated != null && animations.animates(gid) && !animated[y * CHUNK_TILES + x]) {
+                            animated[y * CHUNK_TILES + x] = true;
+                            animatedCount++;
+                        }
+                        if (gid <= 0 || gid >= gidPics.length || gidPics[gid] == null) continue;
+                        BufferedImage imgTile = scaledTiles.tileFor(gid, tileSize, screenCfg);
+                        if (imgTile != null) {
+                            bakePen.drawImage(imgTile, x * tileSize, y * tileSize, null);
+                        }
+                    }
+                }
+            }
+            if (animatedCount > 0) {
+                animatedHere = new int[animatedCount];
+                int at = 0;
+                for (int cell = 0; cell < animated.length; cell++) {
+                    if (animated[cell]) animatedHere[at++] = cell;
+                }
+            }
+        }
+        bakePen.dispose();
+        animatedCells.put(key, animatedHere);
+        return chunk;
+    }
+
+    private Rectangle cellsOf(int cx, int cy) {
+        int left = cx * CHUNK_TILES;
+        int top = cy * CHUNK_TILES;
+        return new Rectangle(left, top, Math.min(CHUNK_TILES, wide - left), Math.min(CHUNK_TILES, tall - top));
+    }
+
+    private Integer chunkKey(int cx, int cy) {
+        return cy * chunksWide + cx;
+    }
+}
@@ -79,6 +79,14 @@ public class Tileset {
         return null;
     }
 
+    /**
+     * Number of whole tiles the sheet actually holds (columns times rows that fit).
+     */
+    public int tileSpan() {
+        int rows = (bigPic.getHeight() - edgePix - chunkTall) / (chunkTall + gapPix) + 1;
+        return Math.max(0, rows) * colCount;
+    }
+
     /**
      * Returns the subimage for a given global tile id, or null if not within this tileset.
      */
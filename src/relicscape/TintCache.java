@@ -0,0 +1,105 @@
+package relicscape;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.awt.image.RescaleOp;
+
+/**
+ * Darkened, mirrored and pre-scaled copies of sprite frames, so a faded or left-facing
+ * monster is a single unscaled blit instead of a fresh image and RescaleOp every frame.
+ * Fades snap to one of FADE_STEPS levels to keep the number of variants small.
+ */
+class TintCache {
+
+    static final int FADE_STEPS = 16;
+
+    private static final class Variant {
+        final BufferedImage frame;
+        final int fadeStep;
+        final boolean mirrored;
+        final int wide;
+        final int tall;
+
+        Variant(BufferedImage frame, int fadeStep, boolean mirrored, int wide, int tall) {
+            this.frame = frame;
+            this.fadeStep = fadeStep;
+            this.mirrored = mirrored;
+            this.wide = wide;
+            this.tall = tall;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Variant)) return false;
+            Variant that = (Variant) other;
+            return frame == that.frame && fadeStep == that.fadeStep && mirrored == that.mirrored
+                    && wide == that.wide && tall == that.tall;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = System.identityHashCode(frame);
+            hash = hash * 31 + fadeStep;
+            hash = hash * 31 + wide;
+            hash = hash * 31 + tall;
+            return hash * 2 + (mirrored ? 1 : 0);
+        }
+    }
+
+    private final BudgetedImageCache<Variant> variants;
+    private final TextureAtlas atlas;
+
+    TintCache(long budgetBytes, TextureAtlas atlas) {
+        this.variants = new BudgetedImageCache<>(budgetBytes);
+        this.atlas = atlas;
+    }
+
+    /**
+     * The frame at wide x tall with its colour scaled by fade (alpha untouched) and mirrored
+     * unless it looks right, copied out of the frame's atlas region.
+     */
+    BufferedImage variant(BufferedImage frame, float fade, boolean lookRight, int wide, int tall,
+                          GraphicsConfiguration screenCfg) {
+        int fadeStep = fade >= 0.999f ? FADE_STEPS
+                : Math.max(0, Math.min(FADE_STEPS - 1, Math.round(fade * FADE_STEPS)));
+        wide = Math.max(1, wide);
+        tall = Math.max(1, tall);
+
+        Variant key = new Variant(frame, fadeStep, !lookRight, wide, tall);
+        BufferedImage inked = variants.get(key);
+        if (inked == null) {
+            inked = bake(atlas.regionOf(frame), fadeStep, !lookRight, wide, tall, screenCfg);
+            variants.put(key, inked);
+        }
+        return inked;
+    }
+
+    void clear() {
+        variants.clear();
+    }
+
+    private static BufferedImage bake(AtlasRegion frame, int fadeStep, boolean mirrored, int wide, int tall,
+                                      GraphicsConfiguration screenCfg) {
+        BufferedImage work = new BufferedImage(wide, tall, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D copyPen = work.createGraphics();
+        if (mirrored) {
+            frame.draw(copyPen, wide, 0, -wide, tall);
+        } else {
+            frame.draw(copyPen, 0, 0, wide, tall);
+        }
+        copyPen.dispose();
+        if (fadeStep < FADE_STEPS) {
+            float fade = fadeStep / (float) FADE_STEPS;
+            new RescaleOp(new float[]{fade, fade, fade, 1f}, new float[]{0f, 0f, 0f, 0f}, null)
+                    .filter(work, work);
+        }
+        if (screenCfg == null) return work;
+        BufferedImage ready = screenCfg.createCompatibleImage(wide, tall, Transparency.TRANSLUCENT);
+        Graphics2D readyPen = ready.createGraphics();
+        readyPen.drawImage(work, 0, 0, null);
+        readyPen.dispose();
+        return ready;
+    }
+}
@@ -0,0 +1,80 @@
+package relicscape;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Crops sprite frames to their opaque pixels and remembers where each crop sat in the
+ * original frame, so big mostly-empty sheets (necromancer, golem, blasts) scale and blit
+ * only the part that shows. Filled while sprites load, read-only afterwards.
+ */
+class TrimmedFrames {
+
+    /** Where a trimmed frame sits inside the frame it was cut from. */
+    static final class Anchor {
+        final int x;
+        final int y;
+        final int fullWide;
+        final int fullTall;
+
+        Anchor(int x, int y, int fullWide, int fullTall) {
+            this.x = x;
+            this.y = y;
+            this.fullWide = fullWide;
+            this.fullTall = fullTall;
+        }
+    }
+
+    private final Map<BufferedImage, Anchor> anchors = new IdentityHashMap<>();
+
+    /** Trimmed copies of frames, in the same order; null stays null. */
+    BufferedImage[] trim(BufferedImage[] frames) {
+        if (frames == null) return null;
+        BufferedImage[] out = new BufferedImage[frames.length];
+        for (int i = 0; i < frames.length; i++) {
+            out[i] = trim(frames[i]);
+        }
+        return out;
+    }
+
+    /** The anchor for a frame from trim(), or one covering the whole image for anything else. */
+    Anchor anchorOf(BufferedImage frame) {
+        Anchor anchor = anchors.get(frame);
+        return anchor != null ? anchor : new Anchor(0, 0, frame.getWidth(), frame.getHeight());
+    }
+
+    private BufferedImage trim(BufferedImage frame) {
+        if (frame == null) return null;
+        int wide = frame.getWidth();
+        int tall = frame.getHeight();
+        int minX = wide, minY = tall, maxX = -1, maxY = -1;
+        int[] row = new int[wide];
+        for (int y = 0; y < tall; y++) {
+            frame.getRGB(0, y, wide, 1, row, 0, wide);
+            for (int x = 0; x < wide; x++) {
+                if ((row[x] >>> 24) == 0) continue;
+                if (x < minX) minX = x;
+                if (x > maxX) maxX = x;
+                minY = Math.min(minY, y);
+                maxY = y;
+            }
+        }
+        boolean blank = maxX < 0;
+        if (blank) {
+            // nothing visible: keep a single clear pixel so callers never see a null frame
+            minX = minY = maxX = maxY = 0;
+        }
+        int cropWide = maxX - minX + 1;
+        int cropTall = maxY - minY + 1;
+        BufferedImage crop = new BufferedImage(cropWide, cropTall, BufferedImage.TYPE_INT_ARGB);
+        if (!blank) {
+            Graphics2D cropPen = crop.createGraphics();
+            cropPen.drawImage(frame, -minX, -minY, null);
+            cropPen.dispose();
+        }
+        anchors.put(crop, new Anchor(minX, minY, wide, tall));
+        return crop;
+    }
+}
@@ -0,0 +1,81 @@
+package relicscape;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Retained UI layers: each named slot keeps one pre-rendered picture of a panel plus the
+ * inputs it was drawn from, and only paints it again when those inputs change. Used from
+ * the painting thread only.
+ */
+class UiLayerCache {
+
+    private static final int MAX_LIVE_LAYERS = 6;
+
+    /** Draws a panel in screen coordinates; the cache shifts it into the layer image. */
+    interface LayerPainter {
+        void paint(Graphics2D layerPen);
+    }
+
+    private static final class Layer {
+        final List<Object> inputs;
+        final BufferedImage picture;
+
+        Layer(List<Object> inputs, BufferedImage picture) {
+            this.inputs = inputs;
+            this.picture = picture;
+        }
+    }
+
+    private final Map<String, Layer> layers = new LinkedHashMap<String, Layer>(8, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Layer> eldest) {
+            return size() > MAX_LIVE_LAYERS;
+        }
+    };
+
+    /** Everything a layer's look depends on, compared with equals(). */
+    static List<Object> inputs(Object... parts) {
+        return Arrays.asList(parts);
+    }
+
+    /** Blit the slot's picture of area, re-rendering it first if the inputs moved on. */
+    void draw(Graphics2D screenPen, String slot, List<Object> inputs, Rectangle area, LayerPainter painter) {
+        if (area.width <= 0 || area.height <= 0) return;
+        List<Object> key = Arrays.asList(inputs, area.x, area.y, area.width, area.height);
+        Layer layer = layers.get(slot);
+        if (layer == null || !layer.inputs.equals(key)) {
+            layer = new Layer(key, render(screenPen, area, painter));
+            layers.put(slot, layer);
+        }
+        screenPen.drawImage(layer.picture, area.x, area.y, null);
+    }
+
+    void clear() {
+        layers.clear();
+    }
+
+    private static BufferedImage render(Graphics2D screenPen, Rectangle area, LayerPainter painter) {
+        GraphicsConfiguration screenCfg = screenPen.getDeviceConfiguration();
+        BufferedImage picture = screenCfg != null
+                ? screenCfg.createCompatibleImage(area.width, area.height, Transparency.TRANSLUCENT)
+                : new BufferedImage(area.width, area.height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D layerPen = picture.createGraphics();
+        layerPen.setComposite(AlphaComposite.Clear);
+        layerPen.fillRect(0, 0, area.width, area.height);
+        layerPen.setComposite(AlphaComposite.SrcOver);
+        layerPen.setRenderingHints(screenPen.getRenderingHints());
+        layerPen.translate(-area.x, -area.y);
+        painter.paint(layerPen);
+        layerPen.dispose();
+        return picture;
+    }
+}
@@ -0,0 +1,167 @@
+package relicscape;
+
+import java.util.Random;
+
+/**
+ * Sandstorms, rain and ash fall. Particles live in parallel arrays inside a fixed box of
+ * WRAP x WRAP tiles that repeats across the world, so the pool is the same size on any map
+ * and a frame only draws the ones that land inside the view. How thick the weather is
+ * turns into sightLoss, which the fog uses to pull its edge in rather than the weather
+ * painting a haze of its own. The sim thread steps, the painter draws; both hold the
+ * lock for their pass.
+ */
+class Weather {
+
+    enum Mode {
+        CLEAR(0f, 0f, 0f, 0f, 0f, 0f, 0),
+        /** Fast, low, sideways streaks of sand; the worst for seeing. */
+        SANDSTORM(1.6f, 9f, 1.5f, 0.45f, 0.05f, 0.6f, 0x9CD8B878),
+        RAIN(1.1f, -1.5f, 14f, 0.04f, 0.45f, 0.25f, 0x7899AACC),
+        /** Slow grey flakes drifting down over the ruins. */
+        ASH(0.7f, 0.8f, 1.2f, 0.07f, 0.07f, 0.35f, 0xA0767070);
+
+        /** Particles per square tile at full strength. */
+        final float density;
+        /** Drift in tiles per second. */
+        final float driftX;
+        final float driftY;
+        /** Streak size in tiles. */
+        final float streakWide;
+        final float streakTall;
+        /** How much of the fog's reach a full-strength spell takes away, 0..1. */
+        final float sightLoss;
+        final int argb;
+
+        Mode(float density, float driftX, float driftY, float streakWide, float streakTall, float sightLoss, int argb) {
+            this.density = density;
+            this.driftX = driftX;
+            this.driftY = driftY;
+            this.streakWide = streakWide;
+            this.streakTall = streakTall;
+            this.sightLoss = sightLoss;
+            this.argb = argb;
+        }
+
+        /** Each biome band's own weather: rain over the grass, sand over the desert, ash over the ruins. */
+        static Mode forBand(TileType band) {
+            if (band == TileType.SAND) return SANDSTORM;
+            if (band == TileType.RUIN_FLOOR) return ASH;
+            return RAIN;
+        }
+    }
+
+    static final int WRAP = 64;
+    private static final float CALM_SECONDS = 50f;
+    private static final float SPELL_SECONDS = 40f;
+    private static final float RAMP_SECONDS = 4f;
+    /** Steps sightLoss moves in, so the fog mask only rebuilds now and then while a spell ramps. */
+    private static final int SIGHT_STEPS = 32;
+
+    private final int capacity;
+    private final float[] x;
+    private final float[] y;
+    /** Per-particle speed jitter, around 1. */
+    private final float[] pace;
+    private final Random dice = new Random(7);
+    private final Mode forced;
+    private Mode mode = Mode.CLEAR;
+    private float strength;
+    private float clockSeconds;
+
+    /** forced, if not null, keeps that weather on for good (CLEAR turns weather off). */
+    Weather(Mode forced) {
+        this.forced = forced;
+        float densest = 0f;
+        for (Mode m : Mode.values()) densest = Math.max(densest, m.density);
+        capacity = Math.round(densest * WRAP * WRAP);
+        x = new float[capacity];
+        y = new float[capacity];
+        pace = new float[capacity];
+        for (int i = 0; i < capacity; i++) {
+            x[i] = dice.nextFloat() * WRAP;
+            y[i] = dice.nextFloat() * WRAP;
+            pace[i] = 0.75f + dice.nextFloat() * 0.5f;
+        }
+    }
+
+    /** Advances the schedule and the particles; band is the biome the player stands in. */
+    synchronized void step(float dt, TileType band) {
+        clockSeconds += dt;
+        Mode wanted;
+        boolean on;
+        if (forced != null) {
+            wanted = forced;
+            on = forced != Mode.CLEAR;
+        } else {
+            wanted = Mode.forBand(band);
+            on = clockSeconds % (CALM_SECONDS + SPELL_SECONDS) >= CALM_SECONDS;
+        }
+        // a change of weather blows the old one out before the new one comes in
+        float target = on && wanted == mode ? 1f : 0f;
+        float ramp = dt / RAMP_SECONDS;
+        strength = target > strength ? Math.min(target, strength + ramp) : Math.max(target, strength - ramp);
+        if (strength == 0f) mode = on ? wanted : Mode.CLEAR;
+        if (mode == Mode.CLEAR) return;
+
+        float moveX = mode.driftX * dt;
+        float moveY = mode.driftY * dt;
+        int live = liveCount(1f);
+        for (int i = 0; i < live; i++) {
+            x[i] = wrap(x[i] + moveX * pace[i]);
+            y[i] = wrap(y[i] + moveY * pace[i]);
+        }
+    }
+
+    synchronized boolean showing() {
+        return mode != Mode.CLEAR && strength > 0f;
+    }
+
+    /** How much of its reach the fog loses right now, 0..1, in coarse steps. */
+    synchronized float sightLoss() {
+        return Math.round(mode.sightLoss * strength * SIGHT_STEPS) / (float) SIGHT_STEPS;
+    }
+
+    /**
+     * Draws the particles falling inside the viewWide x viewTall tile window whose top-left
+     * is world tile (viewLeft, viewTop), as canvas streaks. share thins them out for cheaper frames.
+     */
+    synchronized void draw(WorldRenderer pen, int viewLeft, int viewTop, int viewWide, int viewTall, int tileSize,
+                           float share) {
+        if (mode == Mode.CLEAR || strength <= 0f) return;
+        int live = liveCount(strength * share);
+        int streakW = Math.max(1, Math.round(mode.streakWide * tileSize));
+        int streakH = Math.max(1, Math.round(mode.streakTall * tileSize));
+        int argb = mode.argb;
+        float boxLeft = Math.floorMod(viewLeft, WRAP);
+        float boxTop = Math.floorMod(viewTop, WRAP);
+        for (int i = 0; i < live; i++) {
+            float across = x[i] - boxLeft;
+            if (across < 0f) across += WRAP;
+            if (across >= viewWide) continue;
+            float down = y[i] - boxTop;
+            if (down < 0f) down += WRAP;
+            if (down >= viewTall) continue;
+            pen.fill((int) (across * tileSize), (int) (down * tileSize), streakW, streakH, argb);
+        }
+    }
+
+    static Mode parse(String name) {
+        if (name == null) return null;
+        String wanted = name.trim();
+        if (wanted.equalsIgnoreCase("off")) return Mode.CLEAR;
+        for (Mode m : Mode.values()) {
+            if (m.name().equalsIgnoreCase(wanted)) return m;
+        }
+        return null;
+    }
+
+    private int liveCount(float share) {
+        return Math.min(capacity, Math.round(mode.density * WRAP * WRAP * Math.max(0f, Math.min(1f, share))));
+    }
+
+    private static float wrap(float v) {
+        if (v >= WRAP) return v - WRAP;
+        if (v < 0f) return v + WRAP;
+        return v;
+    }
+}
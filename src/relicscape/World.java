@@ -7,6 +7,12 @@ public class World {
     private final int[][] tileNumbers;
     private final boolean[][] bonkGrid;
     private final TileType[][] prettyTiles;
+    private CellWatcher cellWatcher;
+
+    /** Told about every cell whose look may have changed, so cached art can be rebuilt. */
+    public interface CellWatcher {
+        void cellChanged(int x, int y);
+    }
 
     public World(int wide, int tall) {
         this.wide = wide;
@@ -23,6 +29,8 @@ public class World {
         }
     }
 
+    public void setCellWatcher(CellWatcher watcher) { this.cellWatcher = watcher; }
+
     public int getWidth() { return wide; }
     public int getHeight() { return tall; }
 
@@ -48,6 +56,7 @@ public class World {
         boolean hardStop = (type == TileType.TREE || type == TileType.ROCK ||
                 type == TileType.CACTUS || type == TileType.RUIN_WALL);
         bonkGrid[y][x] = hardStop;
+        if (cellWatcher != null) cellWatcher.cellChanged(x, y);
     }
 
     public TileType baseForRow(int y) {
@@ -0,0 +1,42 @@
+package relicscape;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+/**
+ * Makes the pixels for the world layers of one frame (tiles, drops, hero, fog, monsters,
+ * tint). GamePanel decides what goes where; an implementation decides how it gets drawn.
+ * Coordinates are canvas pixels, with (0,0) at the top-left of the view's first tile.
+ * Used from the painting thread only.
+ */
+interface WorldRenderer {
+
+    /** Start a canvasWide x canvasTall frame that will cover place on screen, cropped to clip. */
+    void begin(Graphics2D screenPen, int canvasWide, int canvasTall, Rectangle place, Rectangle clip);
+
+    /** What caches should bake their images for, so copies into this renderer stay cheap. */
+    GraphicsConfiguration deviceConfiguration();
+
+    /** Unscaled blit of a picture with no transparency. */
+    void copy(BufferedImage pic, int x, int y);
+
+    /** Unscaled source-over blit. */
+    void blend(BufferedImage pic, int x, int y);
+
+    /** Nearest-neighbour source-over blit into (x, y, wide, tall); a negative wide mirrors. */
+    void blendScaled(AtlasRegion art, int x, int y, int wide, int tall);
+
+    /** Source-over fill of a rectangle with one ARGB colour. */
+    void fill(int x, int y, int wide, int tall, int argb);
+
+    void fillOval(int x, int y, int wide, int tall, int argb);
+
+    /** The fog mask's window stretched as FogMask.draw does; smooth picks bilinear over nearest. */
+    void fog(FogMask mask, int left, int top, int windowWide, int windowTall, int originX, int originY, int tileSize,
+             boolean smooth);
+
+    /** Put the frame on screen. */
+    void finish();
+}